@@ -0,0 +1,39 @@
+plugins {
+    id("java")
+    id("maven-publish")
+}
+
+java {
+    toolchain.languageVersion = JavaLanguageVersion.of(21)
+    withSourcesJar()
+    withJavadocJar()
+}
+
+tasks.compileJava {
+    options.release.set(21)
+}
+
+group = "net.thenextlvl.core"
+version = "4.0.0-pre1"
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    compileOnly("org.jspecify:jspecify:1.0.1")
+}
+
+publishing {
+    publications.create<MavenPublication>("maven") {
+        from(components["java"])
+    }
+    repositories.maven {
+        val channel = if ((version as String).contains("-pre")) "snapshots" else "releases"
+        url = uri("https://repo.thenextlvl.net/$channel")
+        credentials {
+            username = System.getenv("REPOSITORY_USER")
+            password = System.getenv("REPOSITORY_TOKEN")
+        }
+    }
+}
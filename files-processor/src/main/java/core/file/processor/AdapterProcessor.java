@@ -0,0 +1,296 @@
+package core.file.processor;
+
+import org.jspecify.annotations.Nullable;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The annotation processor generating streaming type adapters for types annotated with
+ * {@code core.file.formats.GenerateAdapter}.
+ * <p>
+ * Generated adapters replace reflective field access,
+ * and delegate the values of all members to the adapters of the Gson instance they were created for,
+ * so registered adapters and serialization policies still apply.
+ * <p>
+ * Types whose serialization depends on Gson features the generated code can't reproduce,
+ * namely {@code @JsonAdapter}, {@code @Expose} and alternate serialized names,
+ * or that inherit serialized fields the generated adapter can't access, are rejected with a compile error.
+ */
+@SupportedAnnotationTypes(AdapterProcessor.ANNOTATION)
+public final class AdapterProcessor extends AbstractProcessor {
+    static final String ANNOTATION = "core.file.formats.GenerateAdapter";
+    private static final String SUFFIX = "_GsonAdapter";
+    private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+    private static final String JSON_ADAPTER = "com.google.gson.annotations.JsonAdapter";
+    private static final String EXPOSE = "com.google.gson.annotations.Expose";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (var annotation : annotations) {
+            for (var element : ElementFilter.typesIn(round.getElementsAnnotatedWith(annotation))) {
+                if (!isSupported(element)) continue;
+                var properties = properties(element);
+                if (properties == null) continue;
+                try {
+                    generate(element, properties);
+                } catch (IOException e) {
+                    error(element, "Failed to generate adapter: " + e.getMessage());
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isSupported(TypeElement type) {
+        if (type.getKind() != ElementKind.RECORD && type.getKind() != ElementKind.CLASS)
+            return error(type, "Adapters can only be generated for records and classes");
+        if (!type.getTypeParameters().isEmpty())
+            return error(type, "Adapters can't be generated for generic types");
+        if (type.getModifiers().contains(Modifier.ABSTRACT))
+            return error(type, "Adapters can't be generated for abstract classes");
+        if (annotation(type, JSON_ADAPTER) != null)
+            return error(type, "Adapters can't be generated for types annotated with @JsonAdapter");
+        for (Element current = type; current instanceof TypeElement element; current = current.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE))
+                return error(type, "Adapters can't be generated for private types");
+            if (element.getNestingKind() == NestingKind.MEMBER && element.getKind() == ElementKind.CLASS
+                && !element.getModifiers().contains(Modifier.STATIC))
+                return error(type, "Adapters can't be generated for inner classes");
+            if (element.getNestingKind() == NestingKind.LOCAL || element.getNestingKind() == NestingKind.ANONYMOUS)
+                return error(type, "Adapters can't be generated for local types");
+        }
+        if (type.getKind() == ElementKind.CLASS && ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .noneMatch(constructor -> constructor.getParameters().isEmpty()
+                                          && !constructor.getModifiers().contains(Modifier.PRIVATE)))
+            return error(type, "Classes require a non-private constructor without parameters");
+        return true;
+    }
+
+    private @Nullable List<Property> properties(TypeElement type) {
+        var properties = new ArrayList<Property>();
+        var names = new HashSet<String>();
+        var record = type.getKind() == ElementKind.RECORD;
+        for (var current = type; current != null; current = superclass(current)) {
+            for (var field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                var modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) continue;
+                if (!record && (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL))) {
+                    error(field, "Serialized fields must be neither private nor final");
+                    return null;
+                }
+                if (current != type && !isAccessible(field, type)) {
+                    error(field, "Inherited serialized fields must be public or declared in the package of " + type.getSimpleName());
+                    return null;
+                }
+                if (!isSupported(field)) return null;
+                var property = new Property(field.getSimpleName().toString(), name(field), field.asType());
+                if (!names.add(property.name())) {
+                    error(field, "Duplicate serialized name " + property.name());
+                    return null;
+                }
+                properties.add(property);
+            }
+            if (record) break;
+        }
+        return properties;
+    }
+
+    private boolean isSupported(VariableElement field) {
+        if (annotation(field, JSON_ADAPTER) != null)
+            return error(field, "Adapters can't be generated for fields annotated with @JsonAdapter");
+        if (annotation(field, EXPOSE) != null)
+            return error(field, "Adapters can't be generated for fields annotated with @Expose");
+        var serializedName = annotation(field, SERIALIZED_NAME);
+        if (serializedName != null && serializedName.getElementValues().entrySet().stream()
+                .anyMatch(entry -> entry.getKey().getSimpleName().contentEquals("alternate")
+                                   && entry.getValue().getValue() instanceof List<?> alternates && !alternates.isEmpty()))
+            return error(field, "Adapters can't be generated for fields with alternate serialized names");
+        return true;
+    }
+
+    private boolean isAccessible(VariableElement field, TypeElement type) {
+        if (field.getModifiers().contains(Modifier.PUBLIC)) return true;
+        var elements = processingEnv.getElementUtils();
+        return elements.getPackageOf(field).equals(elements.getPackageOf(type));
+    }
+
+    private static @Nullable AnnotationMirror annotation(Element element, String name) {
+        for (var annotation : element.getAnnotationMirrors()) {
+            var type = (TypeElement) annotation.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(name)) return annotation;
+        }
+        return null;
+    }
+
+    private static @Nullable TypeElement superclass(TypeElement type) {
+        if (!(type.getSuperclass() instanceof DeclaredType declared)) return null;
+        var superclass = (TypeElement) declared.asElement();
+        return superclass.getQualifiedName().contentEquals("java.lang.Object") ? null : superclass;
+    }
+
+    private static String name(VariableElement field) {
+        var annotation = annotation(field, SERIALIZED_NAME);
+        if (annotation != null) for (var entry : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) return String.valueOf(entry.getValue().getValue());
+        }
+        return field.getSimpleName().toString();
+    }
+
+    private void generate(TypeElement type, List<Property> properties) throws IOException {
+        var packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        var simpleName = adapterName(type);
+        var qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        var target = type.getQualifiedName().toString();
+        var record = type.getKind() == ElementKind.RECORD;
+
+        var source = new StringBuilder();
+        if (!packageName.isEmpty()) source.append("package ").append(packageName).append(";\n\n");
+        source.append("/**\n * The generated type adapter of {@link ").append(target).append("}.\n */\n");
+        source.append("public final class ").append(simpleName)
+                .append(" extends com.google.gson.TypeAdapter<").append(target).append("> {\n");
+        for (var property : properties) {
+            source.append("    private final com.google.gson.TypeAdapter<").append(boxed(property.type()))
+                    .append("> ").append(property.adapter()).append(";\n");
+        }
+        source.append("\n    public ").append(simpleName).append("(com.google.gson.Gson gson) {\n");
+        for (var property : properties) {
+            source.append("        this.").append(property.adapter()).append(" = gson.getAdapter(")
+                    .append("new com.google.gson.reflect.TypeToken<").append(boxed(property.type())).append(">() {});\n");
+        }
+        source.append("    }\n");
+
+        source.append("\n    @Override\n    public void write(com.google.gson.stream.JsonWriter out, ")
+                .append(target).append(" value) throws java.io.IOException {\n");
+        source.append("        if (value == null) {\n            out.nullValue();\n            return;\n        }\n");
+        source.append("        out.beginObject();\n");
+        for (var property : properties) {
+            var access = "value." + property.field() + (record ? "()" : "");
+            source.append("        out.name(").append(literal(property.name())).append(");\n");
+            source.append("        ").append(property.adapter()).append(".write(out, ").append(access).append(");\n");
+        }
+        source.append("        out.endObject();\n    }\n");
+
+        source.append("\n    @Override\n    public ").append(target)
+                .append(" read(com.google.gson.stream.JsonReader in) throws java.io.IOException {\n");
+        source.append("        if (in.peek() == com.google.gson.stream.JsonToken.NULL) {\n")
+                .append("            in.nextNull();\n            return null;\n        }\n");
+        if (record) for (var property : properties) {
+            source.append("        ").append(property.type()).append(" ").append(local(property))
+                    .append(" = ").append(defaultValue(property.type())).append(";\n");
+        }
+        else source.append("        var result = new ").append(target).append("();\n");
+        source.append("        in.beginObject();\n        while (in.hasNext()) {\n            switch (in.nextName()) {\n");
+        for (var property : properties) {
+            var variable = record ? local(property) : "result." + property.field();
+            var read = property.adapter() + ".read(in)";
+            source.append("                case ").append(literal(property.name())).append(" -> ");
+            // like reflective adapters, nulls don't replace the default of primitives
+            if (property.type().getKind().isPrimitive()) {
+                source.append("{\n                    var read = ").append(read).append(";\n")
+                        .append("                    if (read != null) ").append(variable).append(" = read;\n")
+                        .append("                }\n");
+            } else source.append(variable).append(" = ").append(read).append(";\n");
+        }
+        source.append("                default -> in.skipValue();\n            }\n        }\n        in.endObject();\n");
+        if (record) {
+            source.append("        return new ").append(target).append("(");
+            for (var i = 0; i < properties.size(); i++) {
+                if (i > 0) source.append(", ");
+                source.append(local(properties.get(i)));
+            }
+            source.append(");\n");
+        } else source.append("        return result;\n");
+        source.append("    }\n}\n");
+
+        var file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        try (var writer = file.openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    private static String adapterName(TypeElement type) {
+        var name = new StringBuilder(type.getSimpleName());
+        for (var current = type.getEnclosingElement(); current instanceof TypeElement element; current = element.getEnclosingElement())
+            name.insert(0, '_').insert(0, element.getSimpleName());
+        return name.append(SUFFIX).toString();
+    }
+
+    private String boxed(TypeMirror type) {
+        if (!type.getKind().isPrimitive()) return type.toString();
+        var types = processingEnv.getTypeUtils();
+        return types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+    }
+
+    private static String defaultValue(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "false";
+            case BYTE, SHORT, INT, LONG, FLOAT, DOUBLE, CHAR -> "0";
+            default -> "null";
+        };
+    }
+
+    private static String local(Property property) {
+        return "$" + property.field();
+    }
+
+    private static String literal(String text) {
+        var literal = new StringBuilder(text.length() + 2).append('"');
+        for (var i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if (c < 0x20) literal.append(String.format("\\u%04x", (int) c));
+                    else literal.append(c);
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private boolean error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        return false;
+    }
+
+    /**
+     * A serialized member of an annotated type.
+     *
+     * @param field the name of the field or record component
+     * @param name  the serialized name
+     * @param type  the type of the field
+     */
+    private record Property(String field, String name, TypeMirror type) {
+        private String adapter() {
+            return field + "Adapter";
+        }
+    }
+}
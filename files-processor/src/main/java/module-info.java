@@ -0,0 +1,10 @@
+import org.jspecify.annotations.NullMarked;
+
+@NullMarked
+module core.files.processor {
+    requires java.compiler;
+
+    requires static org.jspecify;
+
+    provides javax.annotation.processing.Processor with core.file.processor.AdapterProcessor;
+}
@@ -2,6 +2,7 @@ plugins {
     id("java")
     id("java-library")
     id("maven-publish")
+    id("me.champeau.jmh").version("0.7.3")
 }
 
 java {
@@ -26,16 +27,27 @@ dependencies {
 
     compileOnlyApi("com.google.code.gson:gson:2.14.0")
     testImplementation("com.google.code.gson:gson:2.14.0")
+    testAnnotationProcessor(project(":files-processor"))
 
     testImplementation("org.junit.jupiter:junit-jupiter")
     testImplementation(platform("org.junit:junit-bom:6.1.1"))
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    jmh("com.google.code.gson:gson:2.14.0")
 }
 
 tasks.test {
     useJUnitPlatform()
 }
 
+jmh {
+    jmhVersion = "1.37"
+    profilers.add("gc")
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+}
+
 publishing {
     publications.create<MavenPublication>("maven") {
         from(components["java"])
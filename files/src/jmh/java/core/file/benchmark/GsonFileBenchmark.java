@@ -0,0 +1,74 @@
+package core.file.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import core.file.Validatable;
+import core.file.ValidationReport;
+import core.file.formats.GsonFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures loading, saving and validating typed roots of a {@link GsonFile}.
+ */
+@State(Scope.Benchmark)
+public class GsonFileBenchmark {
+    @Param({"16", "4096", "65536"})
+    public int entries;
+
+    @Param({"flat", "nested"})
+    public String shape;
+
+    @Param({"false", "true"})
+    public boolean unicode;
+
+    private final Gson gson = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().serializeNulls().create();
+    private Path directory;
+    private Path file;
+    private Path target;
+    private Object root;
+    private Type type;
+    private GsonFile<Object> loaded;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("gson-benchmark");
+        file = directory.resolve("root.json");
+        target = directory.resolve("saved.json");
+        root = shape.equals("nested") ? Roots.nested(entries, unicode) : Roots.flat(entries, unicode);
+        type = root.getClass();
+        new GsonFile<>(file, root, type, gson).save();
+        loaded = new GsonFile<>(file, root, type, gson);
+        loaded.getRoot();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Roots.delete(directory);
+    }
+
+    @Benchmark
+    public Object load() {
+        return new GsonFile<>(file, root, type, gson).getRoot();
+    }
+
+    @Benchmark
+    public Object save() {
+        return new GsonFile<>(target, root, type, gson).save();
+    }
+
+    @Benchmark
+    public ValidationReport validate() {
+        return loaded.validateWithReport(Validatable.Scope.FILTER_AND_FILL);
+    }
+}
@@ -0,0 +1,81 @@
+package core.file.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import core.file.Validatable;
+import core.file.ValidationReport;
+import core.file.formats.JsonFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures loading, saving, validating and querying JSON trees of a {@link JsonFile}.
+ */
+@State(Scope.Benchmark)
+public class JsonFileBenchmark {
+    @Param({"16", "4096", "65536"})
+    public int entries;
+
+    @Param({"flat", "nested"})
+    public String shape;
+
+    @Param({"false", "true"})
+    public boolean unicode;
+
+    private final Gson gson = new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().serializeNulls().create();
+    private Path directory;
+    private Path file;
+    private Path target;
+    private JsonObject root;
+    private JsonFile<JsonObject> loaded;
+    private String query;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("json-benchmark");
+        file = directory.resolve("root.json");
+        target = directory.resolve("saved.json");
+        var nested = shape.equals("nested");
+        root = Roots.tree(entries, nested, unicode);
+        query = nested ? "child-4.child-4.name" : "key-" + (entries - 1);
+        new JsonFile<>(file, root, gson).save();
+        loaded = new JsonFile<>(file, root, gson);
+        loaded.getRoot();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Roots.delete(directory);
+    }
+
+    @Benchmark
+    public JsonObject load() {
+        return new JsonFile<>(file, new JsonObject(), gson).getRoot();
+    }
+
+    @Benchmark
+    public Object save() {
+        return new JsonFile<>(target, root, gson).save();
+    }
+
+    @Benchmark
+    public ValidationReport validate() {
+        return loaded.validateWithReport(Validatable.Scope.FILTER_AND_FILL);
+    }
+
+    @Benchmark
+    public JsonElement query() {
+        return new JsonFile<>(file, new JsonObject(), gson).query(query);
+    }
+}
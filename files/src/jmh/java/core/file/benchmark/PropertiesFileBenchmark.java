@@ -0,0 +1,69 @@
+package core.file.benchmark;
+
+import core.file.Validatable;
+import core.file.formats.PropertiesFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Measures loading, saving and validating a {@link PropertiesFile} in different charsets.
+ */
+@State(Scope.Benchmark)
+public class PropertiesFileBenchmark {
+    @Param({"16", "4096", "65536"})
+    public int entries;
+
+    @Param({"UTF-8", "ISO-8859-1", "UTF-16"})
+    public String charset;
+
+    @Param({"false", "true"})
+    public boolean unicode;
+
+    private Path directory;
+    private Path file;
+    private Path target;
+    private Properties root;
+    private PropertiesFile loaded;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("properties-benchmark");
+        file = directory.resolve("root.properties");
+        target = directory.resolve("saved.properties");
+        root = Roots.properties(entries, unicode);
+        new PropertiesFile(file, Charset.forName(charset), root).save();
+        loaded = new PropertiesFile(file, Charset.forName(charset), root);
+        loaded.getRoot();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Roots.delete(directory);
+    }
+
+    @Benchmark
+    public Properties load() {
+        return new PropertiesFile(file, Charset.forName(charset), new Properties()).getRoot();
+    }
+
+    @Benchmark
+    public Object save() {
+        return new PropertiesFile(target, Charset.forName(charset), root).save();
+    }
+
+    @Benchmark
+    public Object validate() {
+        return loaded.validate(Validatable.Scope.FILTER_AND_FILL);
+    }
+}
@@ -0,0 +1,98 @@
+package core.file.benchmark;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Generates deterministic roots of a given size for the benchmarks.
+ * <p>
+ * The sizes used by the benchmarks range from a few hundred bytes
+ * over a few hundred kilobytes to multiple megabytes once serialized.
+ */
+final class Roots {
+    private Roots() {
+    }
+
+    static String text(int index, boolean unicode) {
+        return unicode ? "wörld-ñame-€-" + index + "-😀" : "world-name-" + index;
+    }
+
+    static Flat flat(int entries, boolean unicode) {
+        var list = new ArrayList<Entry>(entries);
+        for (var i = 0; i < entries; i++) list.add(entry(i, unicode));
+        return new Flat(text(entries, unicode), List.copyOf(list));
+    }
+
+    static Node nested(int entries, boolean unicode) {
+        return node(0, entries, unicode);
+    }
+
+    private static Node node(int index, int entries, boolean unicode) {
+        var children = new ArrayList<Node>(4);
+        for (var i = 1; i <= 4; i++) {
+            var child = index * 4 + i;
+            if (child < entries) children.add(node(child, entries, unicode));
+        }
+        return new Node(text(index, unicode), entry(index, unicode), List.copyOf(children));
+    }
+
+    private static Entry entry(int index, boolean unicode) {
+        return new Entry(text(index, unicode), index, index / 7d, index % 2 == 0, List.of("a" + index, "b" + index));
+    }
+
+    static JsonObject tree(int entries, boolean nested, boolean unicode) {
+        return nested ? nestedTree(0, entries, unicode) : flatTree(entries, unicode);
+    }
+
+    private static JsonObject flatTree(int entries, boolean unicode) {
+        var object = new JsonObject();
+        for (var i = 0; i < entries; i++) {
+            switch (i % 3) {
+                case 0 -> object.addProperty("key-" + i, text(i, unicode));
+                case 1 -> object.addProperty("key-" + i, i * 31);
+                default -> object.addProperty("key-" + i, i % 2 == 0);
+            }
+        }
+        return object;
+    }
+
+    private static JsonObject nestedTree(int index, int entries, boolean unicode) {
+        var object = new JsonObject();
+        object.addProperty("name", text(index, unicode));
+        object.addProperty("value", index);
+        for (var i = 1; i <= 4; i++) {
+            var child = index * 4 + i;
+            if (child < entries) object.add("child-" + i, nestedTree(child, entries, unicode));
+        }
+        return object;
+    }
+
+    static Properties properties(int entries, boolean unicode) {
+        var properties = new Properties();
+        for (var i = 0; i < entries; i++) properties.setProperty("section-" + i % 16 + ".key-" + i, text(i, unicode));
+        return properties;
+    }
+
+    static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(file);
+        }
+    }
+
+    record Flat(String name, List<Entry> entries) {
+    }
+
+    record Node(String name, Entry entry, List<Node> children) {
+    }
+
+    record Entry(String name, int count, double ratio, boolean enabled, List<String> tags) {
+    }
+}
@@ -0,0 +1,51 @@
+package core.file;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A pool of direct byte buffers with power-of-two capacities, shared by all saves.
+ * <p>
+ * Each capacity class retains a few released buffers for reuse,
+ * so steady-state saves of files of similar size don't allocate new buffers.
+ * Requests above the largest class are served by unpooled heap buffers.
+ */
+final class BufferPool {
+    private static final int MINIMUM_SHIFT = 13;
+    private static final int MAXIMUM_SHIFT = 24;
+    private static final int BUFFERS_PER_CLASS = 2;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final ArrayBlockingQueue<ByteBuffer>[] classes = new ArrayBlockingQueue[MAXIMUM_SHIFT - MINIMUM_SHIFT + 1];
+
+    static {
+        for (var i = 0; i < classes.length; i++) classes[i] = new ArrayBlockingQueue<>(BUFFERS_PER_CLASS);
+    }
+
+    private BufferPool() {
+    }
+
+    /**
+     * Acquires a cleared buffer with at least the given capacity.
+     *
+     * @param capacity the minimum capacity
+     * @return the buffer, which should be {@link #release(ByteBuffer) released} once it is no longer used
+     */
+    static ByteBuffer acquire(int capacity) {
+        var shift = Math.max(MINIMUM_SHIFT, 32 - Integer.numberOfLeadingZeros(Math.max(capacity, 1) - 1));
+        if (shift > MAXIMUM_SHIFT) return ByteBuffer.allocate(capacity);
+        var buffer = classes[shift - MINIMUM_SHIFT].poll();
+        return buffer != null ? buffer.clear() : ByteBuffer.allocateDirect(1 << shift);
+    }
+
+    /**
+     * Returns the given buffer to the pool, if it was acquired from it and its class is not full.
+     *
+     * @param buffer the buffer to release
+     */
+    static void release(ByteBuffer buffer) {
+        if (!buffer.isDirect() || Integer.bitCount(buffer.capacity()) != 1) return;
+        var shift = Integer.numberOfTrailingZeros(buffer.capacity());
+        if (shift >= MINIMUM_SHIFT && shift <= MAXIMUM_SHIFT) classes[shift - MINIMUM_SHIFT].offer(buffer);
+    }
+}
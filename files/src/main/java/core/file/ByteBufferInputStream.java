@@ -0,0 +1,39 @@
+package core.file;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream reading the remaining content of a buffer.
+ */
+final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates a stream reading the given buffer, advancing its position.
+     *
+     * @param buffer the buffer to read
+     */
+    ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) return 0;
+        if (!buffer.hasRemaining()) return -1;
+        length = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, length);
+        return length;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+}
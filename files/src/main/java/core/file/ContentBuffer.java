@@ -0,0 +1,231 @@
+package core.file;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * A buffer holding the serialized content of a file before it is written, backed by {@link BufferPool pooled} memory.
+ * <p>
+ * The content is either kept in memory until it is written in one piece,
+ * growing the buffer as needed, or drained to a channel whenever the buffer is full.
+ * UTF-8 text is encoded straight into the buffer, without an intermediate encoder.
+ */
+final class ContentBuffer extends OutputStream {
+    private static final int DRAIN_CAPACITY = 65536;
+    private static final int CHUNK = 4096;
+
+    private final @Nullable WritableByteChannel drain;
+    private final @Nullable MessageDigest digest;
+    private ByteBuffer buffer;
+    private boolean released;
+
+    /**
+     * Creates a buffer keeping its content in memory.
+     *
+     * @param expectedSize the expected size of the content, usually the size of the previously written content
+     */
+    ContentBuffer(long expectedSize) {
+        this.drain = null;
+        this.digest = null;
+        this.buffer = BufferPool.acquire((int) Math.min(expectedSize + (expectedSize >> 3), Integer.MAX_VALUE - 8));
+    }
+
+    /**
+     * Creates a buffer draining its content to the given channel.
+     *
+     * @param drain  the channel to write the content to
+     * @param digest the digest to update with all drained content
+     */
+    ContentBuffer(WritableByteChannel drain, MessageDigest digest) {
+        this.drain = drain;
+        this.digest = digest;
+        this.buffer = BufferPool.acquire(DRAIN_CAPACITY);
+    }
+
+    /**
+     * Creates a writer encoding text into the given stream, which is either this buffer or wraps it.
+     *
+     * @param output  the stream to write to
+     * @param charset the charset to encode the text with
+     * @return the writer
+     */
+    Writer newWriter(OutputStream output, Charset charset) {
+        if (output == this && charset.equals(StandardCharsets.UTF_8)) return new Utf8Writer();
+        return new BufferedWriter(new OutputStreamWriter(output, charset));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureRemaining(1);
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            var chunk = drain != null ? Math.min(length, buffer.capacity()) : length;
+            ensureRemaining(chunk);
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    @Override
+    public void close() {
+        // the buffer outlives the streams wrapping it until it is released
+    }
+
+    /**
+     * Retrieves the buffered content.
+     *
+     * @return a view of the content, positioned at its start
+     */
+    ByteBuffer toByteBuffer() {
+        return buffer.duplicate().flip();
+    }
+
+    /**
+     * Retrieves the amount of buffered bytes.
+     *
+     * @return the size of the content
+     */
+    int size() {
+        return buffer.position();
+    }
+
+    /**
+     * Computes the digest of the buffered content.
+     *
+     * @return the digest
+     */
+    byte[] digest() {
+        var digest = Fingerprint.newDigest();
+        digest.update(toByteBuffer());
+        return digest.digest();
+    }
+
+    /**
+     * Writes all buffered content to the drain.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void drain() throws IOException {
+        if (drain == null || digest == null) throw new IllegalStateException("Buffer has no drain");
+        buffer.flip();
+        digest.update(buffer.duplicate());
+        while (buffer.hasRemaining()) drain.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Returns the memory of this buffer to the pool, after which it must no longer be used.
+     */
+    void release() {
+        if (released) return;
+        released = true;
+        BufferPool.release(buffer);
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) return;
+        if (drain != null && bytes <= buffer.capacity()) {
+            drain();
+            return;
+        }
+        var capacity = (int) Math.min(Math.max((long) buffer.capacity() << 1, (long) buffer.position() + bytes), Integer.MAX_VALUE - 8);
+        if (capacity - buffer.position() < bytes) throw new OutOfMemoryError("Content exceeds the maximum buffer size");
+        var grown = BufferPool.acquire(capacity);
+        grown.put(buffer.flip());
+        BufferPool.release(buffer);
+        buffer = grown;
+    }
+
+    /**
+     * Encodes text as UTF-8 directly into the buffer.
+     * <p>
+     * Unpaired surrogates are replaced with {@code ?}, just like the standard encoder does.
+     */
+    private final class Utf8Writer extends Writer {
+        private char highSurrogate;
+
+        @Override
+        public void write(int c) throws IOException {
+            ensureRemaining(4);
+            encode((char) c);
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            var end = offset + length;
+            while (offset < end) {
+                var chunk = Math.min(end - offset, CHUNK);
+                ensureRemaining(chunk * 3 + 1);
+                for (var i = offset; i < offset + chunk; i++) encode(chars[i]);
+                offset += chunk;
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            var end = offset + length;
+            while (offset < end) {
+                var chunk = Math.min(end - offset, CHUNK);
+                ensureRemaining(chunk * 3 + 1);
+                for (var i = offset; i < offset + chunk; i++) encode(text.charAt(i));
+                offset += chunk;
+            }
+        }
+
+        private void encode(char c) {
+            if (c < 0x80 && highSurrogate == 0) {
+                buffer.put((byte) c);
+            } else if (highSurrogate != 0) {
+                var high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    var codePoint = Character.toCodePoint(high, c);
+                    buffer.put((byte) (0xF0 | codePoint >> 18));
+                    buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                    buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                    buffer.put((byte) (0x80 | codePoint & 0x3F));
+                } else {
+                    buffer.put((byte) '?');
+                    encode(c);
+                }
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (highSurrogate == 0) return;
+            highSurrogate = 0;
+            write('?');
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package core.file;
+
+/**
+ * Enumeration representing how durable a save operation of a {@link FileIO} instance is.
+ * <p>
+ * Higher levels survive more kinds of failures at the cost of throughput.
+ */
+public enum Durability {
+    /**
+     * The written data is handed over to the operating system without any further guarantees
+     */
+    NONE,
+    /**
+     * The file content is flushed to the storage device, but its metadata may not be
+     */
+    FLUSH,
+    /**
+     * The file content and its metadata are flushed to the storage device
+     */
+    SYNC,
+    /**
+     * The file content and its metadata are flushed to the storage device,
+     * as well as the parent directory, making newly created or replaced files durable
+     */
+    SYNC_DIRECTORY;
+
+    /**
+     * Determines whether this level forces the file content to the storage device.
+     *
+     * @return whether the file content is flushed to the storage device
+     */
+    public boolean isFlushing() {
+        return !equals(NONE);
+    }
+
+    /**
+     * Determines whether this level forces the file metadata to the storage device.
+     *
+     * @return whether the file metadata is flushed to the storage device
+     */
+    public boolean isSyncingMetadata() {
+        return equals(SYNC) || equals(SYNC_DIRECTORY);
+    }
+
+    /**
+     * Determines whether this level forces the parent directory to the storage device.
+     *
+     * @return whether the parent directory is flushed to the storage device
+     */
+    public boolean isSyncingDirectory() {
+        return equals(SYNC_DIRECTORY);
+    }
+}
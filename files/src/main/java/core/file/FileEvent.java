@@ -0,0 +1,65 @@
+package core.file;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The flight recorder events emitted for operations of {@link FileIO} instances.
+ * <p>
+ * The duration and thread of an operation are recorded by every event implicitly.
+ */
+@Category({"Core", "File I/O"})
+@StackTrace(false)
+abstract class FileEvent extends Event {
+    @Label("Path")
+    String path;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Main Thread")
+    @Description("Whether the operation ran on a thread considered a main thread")
+    boolean mainThread;
+
+    @Label("Failed")
+    boolean failed;
+
+    static FileEvent of(FileIOListener.Operation operation) {
+        return switch (operation) {
+            case LOAD -> new Load();
+            case SAVE -> new Save();
+            case RELOAD -> new Reload();
+            case VALIDATE -> new Validate();
+        };
+    }
+
+    @Name("core.file.Load")
+    @Label("File Load")
+    @Description("Initial load of the root object of a file")
+    static final class Load extends FileEvent {
+    }
+
+    @Name("core.file.Save")
+    @Label("File Save")
+    @Description("Save of a file, with the amount of bytes written")
+    static final class Save extends FileEvent {
+    }
+
+    @Name("core.file.Reload")
+    @Label("File Reload")
+    @Description("Reload of the root object of a file")
+    static final class Reload extends FileEvent {
+    }
+
+    @Name("core.file.Validate")
+    @Label("File Validation")
+    @Description("Validation of the root object of a file")
+    static final class Validate extends FileEvent {
+    }
+}
@@ -1,23 +1,76 @@
 package core.file;
 
+import org.jspecify.annotations.Nullable;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 /**
  * Abstract class for performing file input and output operations.
+ * <p>
+ * Instances are safe to use from multiple threads:
+ * the root object is loaded at most once on first access,
+ * and reloads publish the new root only once it is fully loaded,
+ * so readers never wait for disk I/O after the initial load.
+ * Saves of the same instance never run concurrently.
  *
  * @param <R> the type of the root object
  */
 public abstract class FileIO<R> {
     private final Path file;
     private final Charset charset;
-    
-    private R root;
-    private boolean loaded;
+
+    private volatile Durability durability = Durability.NONE;
+    private volatile boolean atomic;
+    private volatile long mappingThreshold = Long.MAX_VALUE;
+
+    private final Object saveLock = new Object();
+    private final AtomicReference<WriteBehind.@Nullable Task<R>> pendingSave = new AtomicReference<>();
+    private volatile @Nullable Fingerprint fingerprint;
+    private volatile Duration saveDelay = Duration.ZERO;
+
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile R root;
+    private volatile boolean loaded;
+    private volatile @Nullable R snapshot;
 
     /**
      * Construct a new FileIO providing a file, charset, and default root object
@@ -49,22 +102,134 @@ public abstract class FileIO<R> {
      * @return the FileIO instance with the updated root
      */
     public final FileIO<R> setRoot(R root) {
-        this.loaded = true;
-        this.root = root;
-        return this;
+        loadLock.lock();
+        try {
+            this.root = root;
+            this.loaded = true;
+            this.snapshot = null;
+            onRootChanged(root);
+            return this;
+        } finally {
+            loadLock.unlock();
+        }
     }
 
     /**
      * Retrieves the root object for this instance.
      * If the root object is not already loaded,
      * it loads the root object by calling the abstract `load` method.
+     * <p>
+     * Concurrent calls during the initial load wait for it instead of loading the file again.
+     * Calls made by the loading thread itself, from within `load`, return the default root object.
      *
      * @return the root object of type R
      */
     public R getRoot() {
         if (loaded) return root;
-        loaded = true;
-        return root = load();
+        loadLock.lock();
+        try {
+            if (loaded || loadLock.getHoldCount() > 1) return root;
+            var probe = Probe.begin(FileIOListener.Operation.LOAD, file);
+            var failed = true;
+            try {
+                var root = load();
+                this.root = root;
+                this.loaded = true;
+                this.snapshot = null;
+                onRootChanged(root);
+                failed = false;
+                return root;
+            } finally {
+                probe.end(contentSize(), failed);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves an immutable snapshot of the root object as of its latest commit.
+     * <p>
+     * The root is committed whenever it is loaded, set, {@link #update(UnaryOperator) updated}, or saved.
+     * The snapshot is taken on the first call after a commit and then shared by all readers until the next commit,
+     * so reading it requires neither locking nor defensive copies.
+     * Snapshots must never be modified, even if their type allows it:
+     * formats whose root type can't reject modifications, such as {@code GsonFile} and {@code JsonFile},
+     * return mutable deep copies, and changes to them are seen by every other reader of the same snapshot.
+     *
+     * @return the snapshot of the root object
+     * @see #freeze(Object)
+     */
+    public R snapshot() {
+        var snapshot = this.snapshot;
+        if (snapshot != null) return snapshot;
+        getRoot();
+        loadLock.lock();
+        try {
+            snapshot = this.snapshot;
+            if (snapshot == null) this.snapshot = snapshot = freeze(root);
+            return snapshot;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Commits the root object returned by the given operator, which is applied to a {@link #copy(Object) copy}
+     * of the current root object.
+     * <p>
+     * Updates are serialized, and the new root replaces the current one atomically,
+     * so other threads either observe the previous or the updated root, but never one in between.
+     *
+     * @param operator the operator returning the updated root object
+     * @return the own instance
+     */
+    public FileIO<R> update(UnaryOperator<R> operator) {
+        getRoot();
+        loadLock.lock();
+        try {
+            return setRoot(operator.apply(copy(root)));
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Creates a copy of the given root object that can be modified without affecting it.
+     * <p>
+     * The default implementation returns the root object itself, which is only suitable for immutable roots.
+     *
+     * @param root the root object to copy
+     * @return the copy of the root object
+     * @see #update(UnaryOperator)
+     */
+    protected R copy(R root) {
+        return root;
+    }
+
+    /**
+     * Creates an immutable snapshot of the given root object.
+     * <p>
+     * The default implementation returns a {@link #copy(Object) copy},
+     * formats should override this to return views rejecting modifications where the root type allows it.
+     *
+     * @param root the root object to take a snapshot of
+     * @return the snapshot
+     * @see #snapshot()
+     */
+    protected R freeze(R root) {
+        return copy(root);
+    }
+
+    /**
+     * Called whenever a new root object was loaded or set, before it is returned to the caller.
+     * <p>
+     * Formats can override this to derive state from the root object, such as caches.
+     * Calls are serialized and made in the order the root objects were published.
+     *
+     * @param root the new root object
+     */
+    protected void onRootChanged(R root) {
     }
 
     /**
@@ -74,22 +239,543 @@ public abstract class FileIO<R> {
      */
     protected abstract R load();
 
+    /**
+     * Write the root object to the given writer
+     * <p>
+     * This replaces {@code save} as the method formats implement,
+     * so saves are atomic, durable, and skipped for unchanged content as configured.
+     * Subclasses that used to implement {@code save} have to implement this instead.
+     *
+     * @param root   the root object to write
+     * @param writer the writer to write to
+     * @throws IOException if an I/O error occurs
+     */
+    protected abstract void write(R root, Writer writer) throws IOException;
+
     /**
      * Save the root object to the file
+     * <p>
+     * If {@link #isAtomic() atomic} saves are enabled, the content is first written to a temporary file
+     * next to the target, which then atomically replaces the target.
+     * Unless attributes are given, the temporary file takes over the permissions and owner of the replaced file.
+     * The {@link #getDurability() durability} decides which parts are forced to the storage device.
      *
-     * @param attributes the file attributes
+     * @param attributes the file attributes to apply when the file is created
      * @return the own instance
      */
-    public abstract FileIO<R> save(FileAttribute<?>... attributes);
+    public FileIO<R> save(FileAttribute<?>... attributes) {
+        synchronized (saveLock) {
+            var probe = Probe.begin(FileIOListener.Operation.SAVE, file);
+            var written = 0L;
+            var failed = true;
+            try {
+                var content = serialize(getRoot());
+                try {
+                    var digest = content.digest();
+                    var fingerprint = this.fingerprint;
+                    if (fingerprint != null && fingerprint.matches(digest, getFile())) {
+                        onSaved(content.toByteBuffer().asReadOnlyBuffer());
+                        failed = false;
+                        return this;
+                    }
+                    var parent = getFile().toAbsolutePath().getParent();
+                    var batch = FileSaver.currentBatch();
+                    if (batch == null) Files.createDirectories(parent);
+                    if (atomic) saveAtomic(parent, attributes.length == 0, (path, options) -> write(content, path, options, attributes));
+                    else write(content, getFile(), Set.of(WRITE, CREATE, TRUNCATE_EXISTING), attributes);
+                    syncParent(parent, batch);
+                    this.fingerprint = new Fingerprint(digest, Files.readAttributes(getFile(), BasicFileAttributes.class));
+                    if (batch != null) batch.written(this);
+                    written = content.size();
+                    snapshot = null;
+                    onSaved(content.toByteBuffer().asReadOnlyBuffer());
+                    failed = false;
+                    return this;
+                } finally {
+                    content.release();
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                probe.end(written, failed);
+            }
+        }
+    }
+
+    /**
+     * Called after the root object was saved, before any other save of this instance can start.
+     * <p>
+     * Formats can override this to derive state from the content that is now stored in the file,
+     * such as caches kept next to it.
+     * Saves skipped because the content didn't change are reported as well.
+     *
+     * @param content the saved content as stored in the file, readable using {@link #newReader(ByteBuffer)}
+     * @throws IOException if an I/O error occurs
+     */
+    protected void onSaved(ByteBuffer content) throws IOException {
+    }
+
+    /**
+     * Save content streamed by the given function to the file instead of the root object
+     * <p>
+     * The content is written straight to the file without being buffered in memory first,
+     * following the same {@link #isAtomic() atomicity} and {@link #getDurability() durability} as {@link #save(FileAttribute[])}.
+     * Since the file no longer reflects the root object, the root is loaded again from the file on next access.
+     *
+     * @param content    the function writing the content
+     * @param attributes the file attributes to apply when the file is created
+     */
+    protected final void saveStreaming(StreamingContent content, FileAttribute<?>... attributes) {
+        synchronized (saveLock) {
+            var probe = Probe.begin(FileIOListener.Operation.SAVE, file);
+            var failed = true;
+            try {
+                var digest = Fingerprint.newDigest();
+                var parent = getFile().toAbsolutePath().getParent();
+                var batch = FileSaver.currentBatch();
+                if (batch == null) Files.createDirectories(parent);
+                if (atomic) saveAtomic(parent, attributes.length == 0, (path, options) -> write(content, digest, path, options, attributes));
+                else write(content, digest, getFile(), Set.of(WRITE, CREATE, TRUNCATE_EXISTING), attributes);
+                syncParent(parent, batch);
+                this.fingerprint = new Fingerprint(digest.digest(), Files.readAttributes(getFile(), BasicFileAttributes.class));
+                if (batch != null) batch.written(this);
+                failed = false;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                probe.end(failed ? 0 : contentSize(), failed);
+            }
+            loadLock.lock();
+            try {
+                this.loaded = false;
+                this.snapshot = null;
+            } finally {
+                loadLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Save the root object to the file asynchronously on a dedicated I/O executor
+     * <p>
+     * Calls made before a scheduled save has started are coalesced into that save,
+     * which writes the latest root at the time it runs.
+     * The save is delayed by the {@link #getSaveDelay() save delay} to allow bursts to coalesce.
+     * This never waits for a save that is currently running.
+     *
+     * @param attributes the file attributes to apply when the file is created
+     * @return a future completed with the own instance once the save has finished
+     * @see #flushPendingSaves()
+     */
+    public CompletableFuture<FileIO<R>> saveAsync(FileAttribute<?>... attributes) {
+        while (true) {
+            var pending = pendingSave.get();
+            if (pending != null) return pending.future();
+            var task = new WriteBehind.Task<>(this, attributes);
+            if (!pendingSave.compareAndSet(null, task)) continue;
+            WriteBehind.schedule(task, saveDelay);
+            return task.future();
+        }
+    }
+
+    void completePendingSave(WriteBehind.Task<R> task) {
+        pendingSave.compareAndSet(task, null);
+    }
+
+    /**
+     * Immediately performs all pending asynchronous saves and waits for them to finish.
+     * <p>
+     * This should be called on shutdown to make sure no scheduled saves are lost.
+     *
+     * @throws java.util.concurrent.CompletionException if any of the saves failed
+     */
+    public static void flushPendingSaves() {
+        WriteBehind.flush();
+    }
+
+    private ContentBuffer serialize(R root) throws IOException {
+        var fingerprint = this.fingerprint;
+        var content = new ContentBuffer(fingerprint != null ? fingerprint.size() : 0);
+        try {
+            try (var writer = content.newWriter(encode(content), charset)) {
+                write(root, writer);
+            }
+            return content;
+        } catch (Throwable e) {
+            content.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Wraps the stream the serialized content is written to before it is saved.
+     * <p>
+     * Formats storing transformed bytes, such as compressed ones,
+     * should override this together with {@link #decode(InputStream)} and {@link #newReader()}.
+     *
+     * @param output the stream receiving the bytes that are saved to the file
+     * @return the stream the encoded content is written to
+     * @throws IOException if an I/O error occurs
+     */
+    protected OutputStream encode(OutputStream output) throws IOException {
+        return output;
+    }
+
+    /**
+     * Wraps the stream the content of the file is read from, reversing {@link #encode(OutputStream)}.
+     *
+     * @param input the stream reading the bytes stored in the file
+     * @return the stream the decoded content is read from
+     * @throws IOException if an I/O error occurs
+     */
+    protected InputStream decode(InputStream input) throws IOException {
+        return input;
+    }
+
+    private void saveAtomic(Path parent, boolean preserveAttributes, Target target) throws IOException {
+        var temp = parent.resolve("." + getFile().getFileName() + "."
+                + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+        try {
+            target.write(temp, Set.of(WRITE, CREATE_NEW));
+            if (preserveAttributes) copyAttributes(getFile(), temp);
+            try {
+                Files.move(temp, getFile(), ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, getFile(), REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Copies the permissions and ownership of the replaced file onto the temporary file,
+     * so an atomic save keeps them just like a write in place.
+     * Ownership is only copied as far as the process is permitted to change it.
+     */
+    private static void copyAttributes(Path source, Path target) throws IOException {
+        var posix = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        if (posix != null) {
+            PosixFileAttributes attributes;
+            try {
+                attributes = posix.readAttributes();
+            } catch (NoSuchFileException e) {
+                return;
+            }
+            var view = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+            view.setPermissions(attributes.permissions());
+            try {
+                view.setGroup(attributes.group());
+                view.setOwner(attributes.owner());
+            } catch (IOException ignored) {
+                // changing the owner usually requires elevated privileges
+            }
+            return;
+        }
+        var acl = Files.getFileAttributeView(source, AclFileAttributeView.class);
+        if (acl == null) return;
+        try {
+            var entries = acl.getAcl();
+            var owner = acl.getOwner();
+            var view = Files.getFileAttributeView(target, AclFileAttributeView.class);
+            view.setAcl(entries);
+            try {
+                view.setOwner(owner);
+            } catch (IOException ignored) {
+                // changing the owner usually requires elevated privileges
+            }
+        } catch (NoSuchFileException ignored) {
+            // there is no file to take the attributes from yet
+        }
+    }
+
+    private void write(ContentBuffer content, Path path, Set<StandardOpenOption> options, FileAttribute<?>... attributes) throws IOException {
+        try (var channel = FileChannel.open(path, options, attributes)) {
+            var buffer = content.toByteBuffer();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            if (durability.isFlushing()) channel.force(durability.isSyncingMetadata());
+        }
+    }
+
+    private void write(StreamingContent content, MessageDigest digest, Path path, Set<StandardOpenOption> options, FileAttribute<?>... attributes) throws IOException {
+        try (var channel = FileChannel.open(path, options, attributes)) {
+            var buffer = new ContentBuffer(channel, digest);
+            try {
+                try (var writer = buffer.newWriter(encode(buffer), charset)) {
+                    content.write(writer);
+                }
+                buffer.drain();
+            } finally {
+                buffer.release();
+            }
+            if (durability.isFlushing()) channel.force(durability.isSyncingMetadata());
+        }
+    }
+
+    private void syncParent(Path parent, FileSaver.@Nullable Batch batch) {
+        if (!durability.isSyncingDirectory()) return;
+        if (batch != null) batch.sync(parent);
+        else syncDirectory(parent);
+    }
+
+    static void syncDirectory(Path directory) {
+        try (var channel = FileChannel.open(directory, READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // not every platform supports opening or forcing directories
+        }
+    }
+
+    /**
+     * Determines whether the root object differs from the content of the file.
+     * <p>
+     * This compares a fingerprint of the serialized root against the one taken when the file was last loaded or saved,
+     * so it costs a serialization but no disk I/O beyond a file status check.
+     * A root that was never loaded is not considered dirty,
+     * while the root of a format that never recorded a {@link #getContentDigest() content digest} always is.
+     *
+     * @return whether saving would change the file
+     */
+    public boolean isDirty() {
+        if (!loaded) return false;
+        try {
+            var fingerprint = this.fingerprint;
+            if (fingerprint == null) return true;
+            var content = serialize(getRoot());
+            try {
+                return !fingerprint.matches(content.digest(), getFile());
+            } finally {
+                content.release();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Opens a new input stream to read the content of the file.
+     * <p>
+     * Formats should read the file through this stream,
+     * so unchanged content can be detected and is not written again.
+     *
+     * @return a new input stream reading the file
+     * @throws IOException if an I/O error occurs
+     */
+    protected InputStream newInputStream() throws IOException {
+        var attributes = Files.readAttributes(getFile(), BasicFileAttributes.class);
+        var digest = Fingerprint.newDigest();
+        return new DigestInputStream(Files.newInputStream(getFile(), READ), digest) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) return;
+                closed = true;
+                try {
+                    var buffer = new byte[8192];
+                    while (read(buffer) != -1) {
+                        // digest the remaining content
+                    }
+                } finally {
+                    super.close();
+                }
+                remember(new Fingerprint(digest.digest(), attributes));
+            }
+        };
+    }
+
+    /**
+     * Opens a new reader to read the content of the file using the {@link #getCharset() charset}.
+     * <p>
+     * Files at least as large as the {@link #getMappingThreshold() mapping threshold} are memory-mapped
+     * and decoded straight into the buffers of the caller, other files are read through {@link #newInputStream()}.
+     *
+     * @return a new reader reading the file
+     * @throws IOException if an I/O error occurs
+     */
+    protected Reader newReader() throws IOException {
+        var attributes = Files.readAttributes(getFile(), BasicFileAttributes.class);
+        if (attributes.size() < mappingThreshold || attributes.size() > Integer.MAX_VALUE)
+            return new InputStreamReader(newInputStream(), charset);
+        try (var channel = FileChannel.open(getFile(), READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedReader(buffer.duplicate(), charset, () -> {
+                var digest = Fingerprint.newDigest();
+                digest.update(buffer);
+                remember(new Fingerprint(digest.digest(), attributes));
+            });
+        }
+    }
+
+    /**
+     * Opens a new reader to read the given content, as stored in the file, using the {@link #getCharset() charset}.
+     *
+     * @param content the content to read
+     * @return a new reader reading the content
+     * @throws IOException if an I/O error occurs
+     * @see #onSaved(ByteBuffer)
+     */
+    protected final Reader newReader(ByteBuffer content) throws IOException {
+        return new InputStreamReader(decode(new ByteBufferInputStream(content.duplicate())), charset);
+    }
+
+    private void remember(Fingerprint fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Retrieves the digest of the file content as of the last time it was loaded or saved by this instance.
+     *
+     * @return the digest of the file content, or null if the file was never loaded or saved
+     */
+    protected final byte @Nullable [] getContentDigest() {
+        var fingerprint = this.fingerprint;
+        return fingerprint != null ? fingerprint.digest().clone() : null;
+    }
+
+    /**
+     * Sets the digest of the file content.
+     * <p>
+     * Formats loading the content from somewhere other than {@link #newInputStream()} or {@link #newReader()}
+     * should call this with a previously {@link #getContentDigest() retrieved digest},
+     * so unchanged content is still detected.
+     *
+     * @param digest     the digest of the file content
+     * @param attributes the attributes of the file the digest belongs to
+     */
+    protected final void setContentDigest(byte[] digest, BasicFileAttributes attributes) {
+        remember(new Fingerprint(digest.clone(), attributes));
+    }
+
+    /**
+     * Determines whether the root object was loaded or set.
+     *
+     * @return whether the root object is loaded
+     */
+    protected final boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Computes the top-level keys that differ between two root objects.
+     * <p>
+     * Formats without keyed roots report a change of the root itself as the empty key.
+     *
+     * @param previous the previous root object
+     * @param current  the current root object
+     * @return the keys that changed, empty if the roots are equal
+     * @see FileWatcher.Listener
+     */
+    protected Set<String> diff(R previous, R current) {
+        return Objects.equals(previous, current) ? Set.of() : Set.of("");
+    }
 
     /**
      * Reload the current instance<br>
      * <i>Unsaved changes will be lost</i>
+     * <p>
+     * The current root stays available to other threads until the file is fully loaded.
      *
      * @return the file content
      */
     public FileIO<R> reload() {
-        return setRoot(load());
+        var probe = Probe.begin(FileIOListener.Operation.RELOAD, file);
+        var failed = true;
+        try {
+            setRoot(load());
+            failed = false;
+            return this;
+        } finally {
+            probe.end(contentSize(), failed);
+        }
+    }
+
+    /**
+     * Performs the given operation, measuring it for flight recordings and {@link FileIOListener listeners}.
+     * <p>
+     * Loads, saves and reloads are measured by this class already,
+     * this is meant for other operations of subclasses, such as {@link Validatable#validate(Validatable.Scope) validation}.
+     *
+     * @param operation the operation performed
+     * @param action    the action performing the operation
+     * @param <T>       the type of the result
+     * @return the result of the action
+     */
+    protected final <T> T measure(FileIOListener.Operation operation, Supplier<T> action) {
+        var probe = Probe.begin(operation, file);
+        var failed = true;
+        try {
+            var result = action.get();
+            failed = false;
+            return result;
+        } finally {
+            probe.end(contentSize(), failed);
+        }
+    }
+
+    long contentSize() {
+        var fingerprint = this.fingerprint;
+        return fingerprint != null ? fingerprint.size() : 0;
+    }
+
+    @Nullable Fingerprint fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Registers a listener notified about the operations of all instances.
+     *
+     * @param listener the listener to register
+     * @see FileIOMetrics
+     */
+    public static void addListener(FileIOListener listener) {
+        Probe.addListener(listener);
+    }
+
+    /**
+     * Unregisters a listener previously registered with {@link #addListener(FileIOListener)}.
+     *
+     * @param listener the listener to unregister
+     * @return whether the listener was registered
+     */
+    public static boolean removeListener(FileIOListener listener) {
+        return Probe.removeListener(listener);
+    }
+
+    /**
+     * Sets the predicate deciding which threads are main threads, whose file operations are flagged in measurements.
+     * <p>
+     * By default, threads named {@code main} and {@code Server thread} are considered main threads.
+     *
+     * @param predicate the predicate testing threads
+     */
+    public static void setMainThread(Predicate<Thread> predicate) {
+        Probe.setMainThread(predicate);
+    }
+
+    /**
+     * Reload the current instance if its file was modified since it was last loaded or saved<br>
+     * <i>Unsaved changes will be lost if the file is reloaded</i>
+     * <p>
+     * Modifications are detected by comparing the size, last modified time, and file key of the file,
+     * which takes a single file status lookup, making frequent polling of unchanged files cheap.
+     * A root that was never loaded and files that don't exist are not reloaded.
+     *
+     * @return whether the file was reloaded
+     */
+    public boolean reloadIfChanged() {
+        if (!loaded) return false;
+        try {
+            var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            var fingerprint = this.fingerprint;
+            if (fingerprint != null && fingerprint.isCurrent(attributes)) return false;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        reload();
+        return true;
     }
 
     /**
@@ -128,4 +814,112 @@ public abstract class FileIO<R> {
     public Charset getCharset() {
         return charset;
     }
+
+    /**
+     * Sets the durability of save operations performed by this instance.
+     *
+     * @param durability the new durability
+     * @return the own instance
+     */
+    public FileIO<R> setDurability(Durability durability) {
+        this.durability = durability;
+        return this;
+    }
+
+    /**
+     * Retrieves the durability of save operations performed by this instance.
+     *
+     * @return the durability of save operations
+     */
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Sets the delay asynchronous saves wait before writing, allowing bursts of saves to coalesce.
+     *
+     * @param saveDelay the new save delay
+     * @return the own instance
+     * @see #saveAsync(FileAttribute[])
+     */
+    public FileIO<R> setSaveDelay(Duration saveDelay) {
+        this.saveDelay = saveDelay;
+        return this;
+    }
+
+    /**
+     * Retrieves the delay asynchronous saves wait before writing.
+     *
+     * @return the save delay
+     */
+    public Duration getSaveDelay() {
+        return saveDelay;
+    }
+
+    /**
+     * Sets the file size from which on files are memory-mapped instead of streamed when they are loaded.
+     * <p>
+     * Mapping avoids copying the content through several heap buffers,
+     * which pays off for large files but not for small ones.
+     *
+     * @param mappingThreshold the minimum file size in bytes, or {@link Long#MAX_VALUE} to never map files
+     * @return the own instance
+     * @see #newReader()
+     */
+    public FileIO<R> setMappingThreshold(long mappingThreshold) {
+        this.mappingThreshold = mappingThreshold;
+        return this;
+    }
+
+    /**
+     * Retrieves the file size from which on files are memory-mapped instead of streamed when they are loaded.
+     *
+     * @return the minimum file size in bytes, {@link Long#MAX_VALUE} by default
+     */
+    public long getMappingThreshold() {
+        return mappingThreshold;
+    }
+
+    /**
+     * Sets whether save operations write to a temporary file which atomically replaces the target.
+     * <p>
+     * Atomic saves never leave a partially written file behind if the process dies mid-write.
+     *
+     * @param atomic whether saves should be atomic
+     * @return the own instance
+     */
+    public FileIO<R> setAtomic(boolean atomic) {
+        this.atomic = atomic;
+        return this;
+    }
+
+    /**
+     * Determines whether save operations write to a temporary file which atomically replaces the target.
+     *
+     * @return whether saves are atomic
+     */
+    public boolean isAtomic() {
+        return atomic;
+    }
+
+    /**
+     * A function streaming content to a writer.
+     *
+     * @see #saveStreaming(StreamingContent, FileAttribute[])
+     */
+    @FunctionalInterface
+    protected interface StreamingContent {
+        /**
+         * Writes the content to the given writer.
+         *
+         * @param writer the writer to write to
+         * @throws IOException if an I/O error occurs
+         */
+        void write(Writer writer) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Target {
+        void write(Path path, Set<StandardOpenOption> options) throws IOException;
+    }
 }
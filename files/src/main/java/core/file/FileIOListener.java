@@ -0,0 +1,63 @@
+package core.file;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * A listener notified about every load, save, reload and validation performed by {@link FileIO} instances.
+ * <p>
+ * Listeners are called synchronously on the thread performing the operation,
+ * so they should only record the measurement and return quickly.
+ * While no listener is {@link FileIO#addListener(FileIOListener) registered}
+ * and no flight recording captures file events, operations are not measured at all.
+ *
+ * @see FileIOMetrics
+ */
+@FunctionalInterface
+public interface FileIOListener {
+    /**
+     * Called after an operation has finished, whether it succeeded or not.
+     *
+     * @param measurement the measurement of the operation
+     */
+    void onOperation(Measurement measurement);
+
+    /**
+     * The operations performed by {@link FileIO} instances.
+     */
+    enum Operation {
+        /**
+         * The initial load of the root object
+         */
+        LOAD,
+        /**
+         * A save of the root object or of streamed content
+         */
+        SAVE,
+        /**
+         * A reload of the root object
+         */
+        RELOAD,
+        /**
+         * A validation of the root object
+         */
+        VALIDATE
+    }
+
+    /**
+     * The measurement of a single operation.
+     *
+     * @param operation  the operation performed
+     * @param file       the file the operation was performed on
+     * @param bytes      the size of the content read or validated, or the amount of bytes written
+     * @param duration   the time the operation took
+     * @param thread     the thread that performed the operation
+     * @param mainThread whether the thread is considered a {@link FileIO#setMainThread(java.util.function.Predicate) main thread}
+     * @param failed     whether the operation failed with an exception
+     */
+    record Measurement(
+            Operation operation, Path file, long bytes, Duration duration,
+            Thread thread, boolean mainThread, boolean failed
+    ) {
+    }
+}
@@ -0,0 +1,160 @@
+package core.file;
+
+import core.file.FileIOListener.Measurement;
+import core.file.FileIOListener.Operation;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A listener aggregating counters and latency histograms per {@link Operation operation}.
+ * <p>
+ * Latencies are counted in buckets of powers of two nanoseconds,
+ * so recording a measurement takes a few uncontended atomic additions and never allocates.
+ */
+public final class FileIOMetrics implements FileIOListener {
+    private final Map<Operation, Statistics> statistics = new EnumMap<>(Operation.class);
+
+    /**
+     * Construct new empty metrics
+     */
+    public FileIOMetrics() {
+        for (var operation : Operation.values()) statistics.put(operation, new Statistics());
+    }
+
+    @Override
+    public void onOperation(Measurement measurement) {
+        var statistics = this.statistics.get(measurement.operation());
+        var nanos = Math.max(0, measurement.duration().toNanos());
+        statistics.count.increment();
+        statistics.bytes.add(measurement.bytes());
+        if (measurement.failed()) statistics.failures.increment();
+        if (measurement.mainThread()) statistics.mainThread.increment();
+        statistics.latencies.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos | 1));
+        statistics.maximum.accumulate(nanos);
+    }
+
+    /**
+     * Retrieves how often the given operation was performed.
+     *
+     * @param operation the operation
+     * @return the number of operations
+     */
+    public long getCount(Operation operation) {
+        return statistics.get(operation).count.sum();
+    }
+
+    /**
+     * Retrieves how often the given operation failed.
+     *
+     * @param operation the operation
+     * @return the number of failed operations
+     */
+    public long getFailures(Operation operation) {
+        return statistics.get(operation).failures.sum();
+    }
+
+    /**
+     * Retrieves how often the given operation was performed on a main thread.
+     *
+     * @param operation the operation
+     * @return the number of operations performed on a main thread
+     * @see FileIO#setMainThread(java.util.function.Predicate)
+     */
+    public long getMainThreadCount(Operation operation) {
+        return statistics.get(operation).mainThread.sum();
+    }
+
+    /**
+     * Retrieves the total amount of bytes processed by the given operation.
+     *
+     * @param operation the operation
+     * @return the amount of bytes
+     * @see Measurement#bytes()
+     */
+    public long getBytes(Operation operation) {
+        return statistics.get(operation).bytes.sum();
+    }
+
+    /**
+     * Retrieves a snapshot of the latency histogram of the given operation.
+     *
+     * @param operation the operation
+     * @return the latency histogram
+     */
+    public Histogram getLatency(Operation operation) {
+        var statistics = this.statistics.get(operation);
+        var counts = new long[statistics.latencies.length()];
+        for (var i = 0; i < counts.length; i++) counts[i] = statistics.latencies.get(i);
+        return new Histogram(counts, Duration.ofNanos(statistics.maximum.get()));
+    }
+
+    /**
+     * Resets all counters and histograms.
+     */
+    public void reset() {
+        statistics.values().forEach(Statistics::reset);
+    }
+
+    /**
+     * A snapshot of a latency histogram.
+     *
+     * @param counts  the number of operations per bucket, where bucket {@code i} covers latencies
+     *                from {@code 2^i} up to, but excluding, {@code 2^(i+1)} nanoseconds
+     * @param maximum the highest latency recorded
+     */
+    public record Histogram(long[] counts, Duration maximum) {
+        /**
+         * Retrieves the total number of operations in this histogram.
+         *
+         * @return the number of operations
+         */
+        public long count() {
+            var count = 0L;
+            for (var bucket : counts) count += bucket;
+            return count;
+        }
+
+        /**
+         * Retrieves an upper bound of the latency below which the given fraction of operations finished.
+         *
+         * @param fraction the fraction of operations, between 0 and 1
+         * @return the upper bound of the bucket containing the percentile, capped at the {@link #maximum() maximum}
+         * @throws IllegalArgumentException if the fraction is out of range
+         */
+        public Duration percentile(double fraction) {
+            if (!(fraction >= 0 && fraction <= 1)) throw new IllegalArgumentException("Fraction out of range: " + fraction);
+            var threshold = (long) Math.ceil(count() * fraction);
+            var seen = 0L;
+            for (var i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen < threshold || seen == 0) continue;
+                var bound = i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Duration.ofNanos(Math.min(bound, maximum.toNanos()));
+            }
+            return maximum;
+        }
+    }
+
+    private static final class Statistics {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder mainThread = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final AtomicLongArray latencies = new AtomicLongArray(64);
+        private final LongAccumulator maximum = new LongAccumulator(Math::max, 0);
+
+        private void reset() {
+            count.reset();
+            failures.reset();
+            mainThread.reset();
+            bytes.reset();
+            for (var i = 0; i < latencies.length(); i++) latencies.set(i, 0);
+            maximum.reset();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package core.file;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Loads many {@link FileIO} instances in parallel.
+ * <p>
+ * By default, every file is loaded on its own virtual thread,
+ * a bounded executor can be provided to limit the amount of concurrent loads.
+ * Failures are collected instead of aborting the whole batch.
+ */
+public final class FileLoader {
+    private FileLoader() {
+    }
+
+    /**
+     * Loads the root objects of all given instances in parallel.
+     *
+     * @param files the instances to load
+     * @param <F>   the type of the instances
+     * @return a future completed once all instances were loaded or failed to load
+     */
+    public static <F extends FileIO<?>> CompletableFuture<Result<F>> loadAll(Collection<? extends F> files) {
+        return loadAll(files, WriteBehind.EXECUTOR);
+    }
+
+    /**
+     * Loads the root objects of all given instances in parallel on the given executor.
+     *
+     * @param files    the instances to load
+     * @param executor the executor to load the instances on
+     * @param <F>      the type of the instances
+     * @return a future completed once all instances were loaded or failed to load
+     */
+    public static <F extends FileIO<?>> CompletableFuture<Result<F>> loadAll(Collection<? extends F> files, Executor executor) {
+        return load(files.stream().<Task<F>>map(file -> new Task<>(file.getFile(), () -> file)).toList(), executor);
+    }
+
+    /**
+     * Creates and loads an instance for every file in the given directory matching the glob pattern in parallel.
+     *
+     * @param directory the directory to list
+     * @param glob      the glob pattern the file names have to match, such as {@code *.json}
+     * @param factory   the factory creating an instance for a file
+     * @param <F>       the type of the instances
+     * @return a future completed once all instances were loaded or failed to load
+     * @see Files#newDirectoryStream(Path, String)
+     */
+    public static <F extends FileIO<?>> CompletableFuture<Result<F>> loadAll(Path directory, String glob, Function<Path, ? extends F> factory) {
+        return loadAll(directory, glob, factory, WriteBehind.EXECUTOR);
+    }
+
+    /**
+     * Creates and loads an instance for every file in the given directory matching the glob pattern
+     * in parallel on the given executor.
+     *
+     * @param directory the directory to list
+     * @param glob      the glob pattern the file names have to match, such as {@code *.json}
+     * @param factory   the factory creating an instance for a file
+     * @param executor  the executor to load the instances on
+     * @param <F>       the type of the instances
+     * @return a future completed once all instances were loaded or failed to load,
+     * or completed exceptionally if the directory could not be listed
+     * @see Files#newDirectoryStream(Path, String)
+     */
+    public static <F extends FileIO<?>> CompletableFuture<Result<F>> loadAll(Path directory, String glob, Function<Path, ? extends F> factory, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> list(directory, glob), executor).thenCompose(paths -> load(paths.stream()
+                .<Task<F>>map(path -> new Task<>(path, () -> factory.apply(path)))
+                .toList(), executor));
+    }
+
+    private static List<Path> list(Path directory, String glob) {
+        if (!Files.isDirectory(directory)) return List.of();
+        try (var stream = Files.newDirectoryStream(directory, glob)) {
+            var paths = new ArrayList<Path>();
+            stream.forEach(path -> {
+                if (Files.isRegularFile(path)) paths.add(path);
+            });
+            return paths;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <F extends FileIO<?>> CompletableFuture<Result<F>> load(List<Task<F>> tasks, Executor executor) {
+        var futures = tasks.stream().map(task -> CompletableFuture.supplyAsync(() -> {
+            F file = task.supplier().get();
+            file.getRoot();
+            return file;
+        }, executor).handle((file, failure) -> new Outcome<>(task.file(), file, failure))).toList();
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            var loaded = new ArrayList<F>(futures.size());
+            var failures = new LinkedHashMap<Path, Throwable>();
+            futures.forEach(future -> {
+                var outcome = future.join();
+                if (outcome.loaded() != null) loaded.add(outcome.loaded());
+                else failures.put(outcome.file(), unwrap(outcome.failure()));
+            });
+            return new Result<>(Collections.unmodifiableList(loaded), Collections.unmodifiableMap(failures));
+        });
+    }
+
+    private static Throwable unwrap(@Nullable Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null) return failure.getCause();
+        return failure != null ? failure : new IllegalStateException("Unknown failure");
+    }
+
+    private record Outcome<F>(Path file, @Nullable F loaded, @Nullable Throwable failure) {
+    }
+
+    private record Task<F>(Path file, Supplier<? extends F> supplier) {
+    }
+
+    /**
+     * The result of loading a batch of instances.
+     *
+     * @param loaded   the successfully loaded instances in their original order
+     * @param failures the failures keyed by the file that failed to load
+     * @param <F>      the type of the instances
+     */
+    public record Result<F>(List<F> loaded, Map<Path, Throwable> failures) {
+        /**
+         * Determines whether all instances were loaded successfully.
+         *
+         * @return whether no instance failed to load
+         */
+        public boolean isSuccessful() {
+            return failures.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package core.file;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Saves many {@link FileIO} instances in parallel as a single group.
+ * <p>
+ * Parent directories are created once per directory instead of once per file,
+ * and directories that have to be {@link Durability#isSyncingDirectory() synced} are synced once
+ * after all files in them were written, so the cost of the durability barrier is shared by the whole group.
+ * Instances that were never loaded, as well as instances whose content did not change, are not written.
+ * <p>
+ * By default, every file is saved on its own virtual thread,
+ * a bounded executor can be provided to limit the amount of concurrent saves.
+ * Failures are collected instead of aborting the whole batch.
+ */
+public final class FileSaver {
+    private static final ThreadLocal<@Nullable Batch> BATCH = new ThreadLocal<>();
+
+    private FileSaver() {
+    }
+
+    /**
+     * Saves all given instances in parallel.
+     *
+     * @param files the instances to save
+     * @param <F>   the type of the instances
+     * @return a future completed once all instances were saved or failed to save
+     */
+    public static <F extends FileIO<?>> CompletableFuture<Result<F>> saveAll(Collection<? extends F> files) {
+        return saveAll(files, WriteBehind.EXECUTOR);
+    }
+
+    /**
+     * Saves all given instances in parallel on the given executor.
+     *
+     * @param files    the instances to save
+     * @param executor the executor to save the instances on
+     * @param <F>      the type of the instances
+     * @return a future completed once all instances were saved or failed to save
+     */
+    public static <F extends FileIO<?>> CompletableFuture<Result<F>> saveAll(Collection<? extends F> files, Executor executor) {
+        var loaded = new ArrayList<F>(files.size());
+        var unchanged = new ArrayList<F>();
+        files.forEach(file -> (file.isLoaded() ? loaded : unchanged).add(file));
+        var parents = new LinkedHashMap<Path, List<F>>();
+        loaded.forEach(file -> parents.computeIfAbsent(parent(file), ignored -> new ArrayList<>()).add(file));
+
+        var batch = new Batch();
+        var futures = parents.entrySet().stream().map(entry -> CompletableFuture.runAsync(() -> {
+            try {
+                Files.createDirectories(entry.getKey());
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor).handle((ignored, failure) -> entry.getValue().stream().map(file -> failure != null
+                ? CompletableFuture.completedFuture(new Outcome<>(file, false, failure))
+                : save(file, batch, executor)).toList())
+        ).toList();
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenCompose(ignored -> {
+            var outcomes = futures.stream().flatMap(future -> future.join().stream()).toList();
+            return CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new)).thenApplyAsync(nothing -> {
+                batch.syncing.forEach(FileIO::syncDirectory);
+                var saved = new ArrayList<F>(outcomes.size());
+                var failures = new LinkedHashMap<Path, Throwable>();
+                outcomes.forEach(future -> {
+                    var outcome = future.join();
+                    if (outcome.failure() != null) failures.put(outcome.file().getFile(), unwrap(outcome.failure()));
+                    else if (outcome.written()) saved.add(outcome.file());
+                    else unchanged.add(outcome.file());
+                });
+                return new Result<>(
+                        Collections.unmodifiableList(saved),
+                        Collections.unmodifiableList(unchanged),
+                        Collections.unmodifiableMap(failures)
+                );
+            }, executor);
+        });
+    }
+
+    private static <F extends FileIO<?>> CompletableFuture<Outcome<F>> save(F file, Batch batch, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            BATCH.set(batch);
+            try {
+                file.save();
+            } finally {
+                BATCH.remove();
+            }
+            return batch.written.contains(file);
+        }, executor).handle((written, failure) -> new Outcome<>(file, written != null && written, failure));
+    }
+
+    private static Path parent(FileIO<?> file) {
+        return file.getFile().toAbsolutePath().getParent();
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null) return failure.getCause();
+        return failure;
+    }
+
+    /**
+     * Retrieves the batch the current thread saves a file for.
+     *
+     * @return the batch, or null if the current thread is not saving a file as part of a batch
+     */
+    static @Nullable Batch currentBatch() {
+        return BATCH.get();
+    }
+
+    /**
+     * The state shared by all saves of a batch.
+     */
+    static final class Batch {
+        private final Set<Path> syncing = ConcurrentHashMap.newKeySet();
+        private final Set<FileIO<?>> written = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Requests the given directory to be synced once all files were written.
+         *
+         * @param directory the directory to sync
+         */
+        void sync(Path directory) {
+            syncing.add(directory);
+        }
+
+        /**
+         * Marks the given instance as written.
+         *
+         * @param file the written instance
+         */
+        void written(FileIO<?> file) {
+            written.add(file);
+        }
+    }
+
+    private record Outcome<F>(F file, boolean written, @Nullable Throwable failure) {
+    }
+
+    /**
+     * The result of saving a batch of instances.
+     *
+     * @param saved     the instances whose files were written, in their original order within each directory
+     * @param unchanged the instances that did not need to be written
+     * @param failures  the failures keyed by the file that failed to save
+     * @param <F>       the type of the instances
+     */
+    public record Result<F>(List<F> saved, List<F> unchanged, Map<Path, Throwable> failures) {
+        /**
+         * Determines whether all instances were saved successfully.
+         *
+         * @return whether no instance failed to save
+         */
+        public boolean isSuccessful() {
+            return failures.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package core.file;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Identifies the state of a file by its size, last modified time, and file key,
+ * which are retrieved with a single file status lookup.
+ * <p>
+ * Two stamps of the same file are equal if the file was most likely not modified in between.
+ *
+ * @param size         the size of the file
+ * @param lastModified the last modified time of the file
+ * @param fileKey      the key uniquely identifying the file, if available
+ */
+public record FileStamp(long size, FileTime lastModified, @Nullable Object fileKey) {
+    /**
+     * Creates a stamp from the given file attributes.
+     *
+     * @param attributes the attributes of the file
+     * @return the stamp of the file
+     */
+    public static FileStamp of(BasicFileAttributes attributes) {
+        return new FileStamp(attributes.size(), attributes.lastModifiedTime(), attributes.fileKey());
+    }
+
+    /**
+     * Creates a stamp of the given file as it is now.
+     *
+     * @param file the file
+     * @return the stamp of the file
+     * @throws IOException if an I/O error occurs
+     */
+    public static FileStamp of(Path file) throws IOException {
+        return of(Files.readAttributes(file, BasicFileAttributes.class));
+    }
+}
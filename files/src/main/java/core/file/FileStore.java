@@ -0,0 +1,322 @@
+package core.file;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A directory-backed store mapping keys to files named {@code <key><extension>}.
+ * <p>
+ * Entries are loaded lazily on first access and kept in memory up to a maximum weight.
+ * Once it is exceeded, the least recently used entries are evicted and saved if their content changed,
+ * so memory stays bounded regardless of how many keys were ever accessed.
+ * Entries that are still loading are never evicted,
+ * and entries failing to save are kept in memory, so their changes are retried on a later eviction.
+ * <p>
+ * Instances handed out by {@link #getFile(Object)} stay attached to the store after their entry was evicted:
+ * as long as they are referenced elsewhere, accessing the key again returns the same instance,
+ * and {@link #flush()} saves them, so changes made through them are never lost.
+ * Instances implementing {@link Validatable} are validated after they were loaded.
+ *
+ * @param <K> the type of the keys
+ * @param <R> the type of the root objects
+ */
+public class FileStore<K, R> implements AutoCloseable {
+    private static final System.Logger LOGGER = System.getLogger(FileStore.class.getName());
+
+    private final LinkedHashMap<K, Entry<R>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, FileIO<R>> evicting = new HashMap<>();
+    private final Map<K, Detached<K, R>> detached = new HashMap<>();
+    private final ReferenceQueue<FileIO<R>> collected = new ReferenceQueue<>();
+    private final Function<Path, ? extends FileIO<R>> factory;
+    private final ToLongFunction<? super R> weigher;
+    private final long maximumWeight;
+    private final String extension;
+    private final Path directory;
+
+    private long weight;
+
+    /**
+     * Construct a new FileStore providing a directory, file extension, factory, maximum weight, and weigher
+     *
+     * @param directory     the directory to store the files in
+     * @param extension     the file extension to append to the keys, such as {@code .json}
+     * @param factory       the factory creating an instance for a file
+     * @param maximumWeight the maximum total weight of all loaded entries
+     * @param weigher       the function computing the weight of a root object when it is loaded or put
+     */
+    public FileStore(Path directory, String extension, Function<Path, ? extends FileIO<R>> factory,
+                     long maximumWeight, ToLongFunction<? super R> weigher) {
+        this.directory = directory;
+        this.extension = extension;
+        this.factory = factory;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Construct a new FileStore providing a directory, file extension, factory, and maximum amount of loaded entries
+     *
+     * @param directory   the directory to store the files in
+     * @param extension   the file extension to append to the keys, such as {@code .json}
+     * @param factory     the factory creating an instance for a file
+     * @param maximumSize the maximum amount of loaded entries
+     */
+    public FileStore(Path directory, String extension, Function<Path, ? extends FileIO<R>> factory, long maximumSize) {
+        this(directory, extension, factory, maximumSize, root -> 1);
+    }
+
+    /**
+     * Retrieves the root object associated with the given key, loading it if necessary.
+     *
+     * @param key the key
+     * @return the root object
+     */
+    public R get(K key) {
+        return getFile(key).getRoot();
+    }
+
+    /**
+     * Retrieves the instance associated with the given key, loading it if necessary.
+     *
+     * @param key the key
+     * @return the loaded instance
+     */
+    public FileIO<R> getFile(K key) {
+        var entry = entry(key);
+        synchronized (entry) {
+            if (!entry.loaded) {
+                entry.file.getRoot();
+                if (entry.file instanceof Validatable<?> validatable) validatable.validate();
+                entry.loaded = true;
+                reweigh(key, entry);
+            }
+        }
+        evict();
+        return entry.file;
+    }
+
+    /**
+     * Associates the given root object with the given key without saving it.
+     *
+     * @param key  the key
+     * @param root the root object
+     * @return the own instance
+     */
+    public FileStore<K, R> put(K key, R root) {
+        var entry = entry(key);
+        synchronized (entry) {
+            entry.file.setRoot(root);
+            entry.loaded = true;
+            reweigh(key, entry);
+        }
+        evict();
+        return this;
+    }
+
+    /**
+     * Removes the entry associated with the given key and deletes its file.
+     *
+     * @param key the key
+     * @return whether the file was deleted
+     * @throws IOException if an I/O error occurs
+     */
+    public boolean remove(K key) throws IOException {
+        FileIO<R> file;
+        synchronized (entries) {
+            var entry = entries.remove(key);
+            if (entry != null) weight -= entry.weight;
+            evicting.remove(key);
+            var reference = detached.remove(key);
+            var held = reference != null ? reference.get() : null;
+            file = entry != null ? entry.file : held != null ? held : factory.apply(resolve(key));
+        }
+        return file.delete();
+    }
+
+    /**
+     * Determines whether the given key is currently loaded.
+     *
+     * @param key the key
+     * @return whether the entry of the key is in memory
+     */
+    public boolean isLoaded(K key) {
+        synchronized (entries) {
+            var entry = entries.get(key);
+            return entry != null && entry.loaded;
+        }
+    }
+
+    /**
+     * Retrieves the amount of entries currently in memory.
+     *
+     * @return the amount of loaded entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Retrieves the total weight of all entries currently in memory.
+     *
+     * @return the total weight of the loaded entries
+     */
+    public long getWeight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    /**
+     * Saves all loaded entries whose content changed,
+     * including evicted instances that are still referenced elsewhere.
+     *
+     * @return the own instance
+     */
+    public FileStore<K, R> flush() {
+        var files = new ArrayList<FileIO<R>>();
+        synchronized (entries) {
+            entries.values().forEach(entry -> {
+                if (entry.loaded) files.add(entry.file);
+            });
+            detached.values().forEach(reference -> {
+                var file = reference.get();
+                if (file != null) files.add(file);
+            });
+        }
+        files.forEach(FileIO::save);
+        return this;
+    }
+
+    /**
+     * Saves all loaded entries whose content changed and releases them from memory.
+     */
+    @Override
+    public void close() {
+        flush();
+        synchronized (entries) {
+            entries.clear();
+            detached.clear();
+            weight = 0;
+        }
+    }
+
+    /**
+     * Retrieves the directory the files are stored in.
+     *
+     * @return the directory of the files
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Resolves the file associated with the given key.
+     *
+     * @param key the key
+     * @return the file of the key
+     * @throws IllegalArgumentException if the key does not resolve to a file within the directory
+     */
+    public Path resolve(K key) {
+        var file = directory.resolve(key + extension);
+        if (!directory.equals(file.getParent()))
+            throw new IllegalArgumentException("Key does not resolve to a file in " + directory + ": " + key);
+        return file;
+    }
+
+    private Entry<R> entry(K key) {
+        synchronized (entries) {
+            var entry = entries.get(key);
+            if (entry != null) return entry;
+            expunge();
+            var reference = detached.remove(key);
+            var evicted = evicting.get(key);
+            if (evicted == null && reference != null) evicted = reference.get();
+            entry = new Entry<>(evicted != null ? evicted : factory.apply(resolve(key)));
+            entries.put(key, entry);
+            if (evicted == null) return entry;
+            entry.loaded = true;
+            entry.weight = weigher.applyAsLong(evicted.getRoot());
+            weight += entry.weight;
+            return entry;
+        }
+    }
+
+    private void reweigh(K key, Entry<R> entry) {
+        var weight = weigher.applyAsLong(entry.file.getRoot());
+        synchronized (entries) {
+            if (entries.get(key) != entry) return;
+            this.weight += weight - entry.weight;
+            entry.weight = weight;
+        }
+    }
+
+    private void evict() {
+        var evicted = new LinkedHashMap<K, Entry<R>>();
+        synchronized (entries) {
+            var iterator = entries.entrySet().iterator();
+            while (weight > maximumWeight && entries.size() > 1 && iterator.hasNext()) {
+                var next = iterator.next();
+                if (!next.getValue().loaded) continue;
+                iterator.remove();
+                weight -= next.getValue().weight;
+                evicting.put(next.getKey(), next.getValue().file);
+                evicted.put(next.getKey(), next.getValue());
+            }
+        }
+        evicted.forEach((key, entry) -> {
+            try {
+                entry.file.save();
+                synchronized (entries) {
+                    if (evicting.remove(key, entry.file) && !entries.containsKey(key))
+                        detached.put(key, new Detached<>(key, entry.file, collected));
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Failed to save evicted " + entry.file.getFile() + ", keeping it loaded", e);
+                synchronized (entries) {
+                    evicting.remove(key, entry.file);
+                    if (entries.putIfAbsent(key, entry) == null) weight += entry.weight;
+                }
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expunge() {
+        for (var reference = collected.poll(); reference != null; reference = collected.poll()) {
+            var detached = (Detached<K, R>) reference;
+            this.detached.remove(detached.key, detached);
+        }
+    }
+
+    /**
+     * A weak reference to an evicted instance that may still be referenced elsewhere.
+     */
+    private static final class Detached<K, R> extends WeakReference<FileIO<R>> {
+        private final K key;
+
+        private Detached(K key, FileIO<R> file, ReferenceQueue<FileIO<R>> queue) {
+            super(file, queue);
+            this.key = key;
+        }
+    }
+
+    private static final class Entry<R> {
+        private final FileIO<R> file;
+        private volatile boolean loaded;
+        private long weight;
+
+        private Entry(FileIO<R> file) {
+            this.file = file;
+        }
+    }
+}
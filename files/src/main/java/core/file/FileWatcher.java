@@ -0,0 +1,193 @@
+package core.file;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches the files of any number of {@link FileIO} instances on a single thread
+ * and reloads them once they are modified externally.
+ * <p>
+ * Bursts of modifications, as produced by most editors, are debounced into a single reload.
+ * Files which were not modified since they were last loaded or saved, such as after a save of the instance itself,
+ * are not reloaded, see {@link FileIO#reloadIfChanged()}.
+ * Reloads and listener calls happen on the watcher thread.
+ */
+public final class FileWatcher implements AutoCloseable {
+    private static final System.Logger LOGGER = System.getLogger(FileWatcher.class.getName());
+
+    private final Map<Path, Map<Path, Set<Watch<?>>>> watches = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> keys = new ConcurrentHashMap<>();
+    private final Map<Watch<?>, Long> pending = new HashMap<>();
+    private final WatchService service;
+    private final Duration debounce;
+    private final Thread thread;
+
+    /**
+     * Construct a new FileWatcher providing the debounce window
+     *
+     * @param debounce the time to wait after the last modification of a file before reloading it
+     * @throws IOException if an I/O error occurs
+     */
+    public FileWatcher(Duration debounce) throws IOException {
+        this.service = FileSystems.getDefault().newWatchService();
+        this.debounce = debounce;
+        this.thread = Thread.ofPlatform().daemon().name("FileWatcher").start(this::run);
+    }
+
+    /**
+     * Construct a new FileWatcher with a debounce window of 100 milliseconds
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public FileWatcher() throws IOException {
+        this(Duration.ofMillis(100));
+    }
+
+    /**
+     * Starts watching the file of the given instance, creating its parent directories if necessary.
+     *
+     * @param file     the instance to reload when its file is modified
+     * @param listener the listener to notify after the instance was reloaded
+     * @param <R>      the type of the root object
+     * @return the own instance
+     * @throws IOException if an I/O error occurs
+     */
+    public <R> FileWatcher watch(FileIO<R> file, Listener<R> listener) throws IOException {
+        var path = file.getFile().toAbsolutePath();
+        var directory = path.getParent();
+        Files.createDirectories(directory);
+        synchronized (watches) {
+            if (!keys.containsKey(directory)) keys.put(directory, directory.register(service,
+                    ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE));
+            watches.computeIfAbsent(directory, ignored -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(path.getFileName(), ignored -> ConcurrentHashMap.newKeySet())
+                    .add(new Watch<>(file, listener));
+        }
+        return this;
+    }
+
+    /**
+     * Stops watching the file of the given instance.
+     *
+     * @param file the instance to stop watching
+     * @return the own instance
+     */
+    public FileWatcher unwatch(FileIO<?> file) {
+        var path = file.getFile().toAbsolutePath();
+        var directory = path.getParent();
+        synchronized (watches) {
+            var files = watches.get(directory);
+            if (files == null) return this;
+            var registered = files.get(path.getFileName());
+            if (registered != null) registered.removeIf(watch -> watch.file() == file);
+            if (registered != null && registered.isEmpty()) files.remove(path.getFileName());
+            if (!files.isEmpty()) return this;
+            watches.remove(directory);
+            var key = keys.remove(directory);
+            if (key != null) key.cancel();
+        }
+        return this;
+    }
+
+    /**
+     * Stops the watcher thread and releases all resources.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        service.close();
+        thread.interrupt();
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                var key = pending.isEmpty() ? service.take() : service.poll(untilNextReload(), TimeUnit.NANOSECONDS);
+                if (key != null) process(key);
+                reloadDue();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+        }
+    }
+
+    private long untilNextReload() {
+        var now = System.nanoTime();
+        return pending.values().stream()
+                .mapToLong(deadline -> deadline - now)
+                .min().orElse(0);
+    }
+
+    private void process(WatchKey key) {
+        var directory = (Path) key.watchable();
+        var files = watches.getOrDefault(directory, Map.of());
+        var deadline = System.nanoTime() + debounce.toNanos();
+        for (var event : key.pollEvents()) {
+            if (event.kind().equals(OVERFLOW)) {
+                files.values().forEach(registered -> registered.forEach(watch -> pending.put(watch, deadline)));
+            } else if (event.context() instanceof Path name) {
+                files.getOrDefault(name, Set.of()).forEach(watch -> pending.put(watch, deadline));
+            }
+        }
+        key.reset();
+    }
+
+    private void reloadDue() {
+        var now = System.nanoTime();
+        pending.entrySet().removeIf(entry -> {
+            if (entry.getValue() - now > 0) return false;
+            try {
+                entry.getKey().reload();
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Failed to reload " + entry.getKey().file().getFile(), e);
+            }
+            return true;
+        });
+    }
+
+    private record Watch<R>(FileIO<R> file, Listener<R> listener) {
+        private void reload() {
+            if (!file.isLoaded()) return;
+            var previous = file.getRoot();
+            if (!file.reloadIfChanged()) return;
+            var current = file.getRoot();
+            var changes = file.diff(previous, current);
+            if (!changes.isEmpty()) listener.onReload(file, previous, current, changes);
+        }
+    }
+
+    /**
+     * A listener notified after a watched instance was reloaded because its file was modified.
+     *
+     * @param <R> the type of the root object
+     */
+    @FunctionalInterface
+    public interface Listener<R> {
+        /**
+         * Called after the given instance was reloaded and its root changed.
+         *
+         * @param file     the reloaded instance
+         * @param previous the root object before the reload
+         * @param current  the root object after the reload
+         * @param changes  the top-level keys that changed
+         * @see FileIO#diff(Object, Object)
+         */
+        void onReload(FileIO<R> file, R previous, R current, Set<String> changes);
+    }
+}
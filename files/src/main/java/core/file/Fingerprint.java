@@ -0,0 +1,73 @@
+package core.file;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Identifies the content of a file at the time it was last read or written.
+ *
+ * @param digest the digest of the file content
+ * @param stamp  the stamp of the file
+ */
+record Fingerprint(byte[] digest, FileStamp stamp) {
+    Fingerprint(byte[] digest, BasicFileAttributes attributes) {
+        this(digest, FileStamp.of(attributes));
+    }
+
+    /**
+     * Retrieves the size of the file.
+     *
+     * @return the size of the file
+     */
+    long size() {
+        return stamp.size();
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Determines whether the given digest matches this fingerprint
+     * and the file was not modified since this fingerprint was taken.
+     *
+     * @param digest the digest of the new content
+     * @param file   the file this fingerprint belongs to
+     * @return whether writing content with the given digest would not change the file
+     */
+    boolean matches(byte[] digest, Path file) {
+        return Arrays.equals(this.digest, digest) && isCurrent(file);
+    }
+
+    /**
+     * Determines whether the file was not modified since this fingerprint was taken.
+     *
+     * @param file the file this fingerprint belongs to
+     * @return whether the file is unchanged
+     */
+    boolean isCurrent(Path file) {
+        try {
+            return stamp.equals(FileStamp.of(file));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Determines whether the given attributes match the ones of the file when this fingerprint was taken.
+     *
+     * @param attributes the current attributes of the file
+     * @return whether the file is unchanged
+     */
+    boolean isCurrent(BasicFileAttributes attributes) {
+        return stamp.equals(FileStamp.of(attributes));
+    }
+}
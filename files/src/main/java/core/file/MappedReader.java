@@ -0,0 +1,73 @@
+package core.file;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Objects;
+
+/**
+ * A reader decoding a fully available byte buffer, such as a memory-mapped file,
+ * straight into the char buffers passed to it without any intermediate copies.
+ */
+final class MappedReader extends Reader {
+    private final CharBuffer pending = CharBuffer.allocate(2).flip();
+    private final CharsetDecoder decoder;
+    private final ByteBuffer buffer;
+    private final Runnable onClose;
+
+    private boolean decoded;
+    private boolean flushed;
+    private boolean closed;
+
+    MappedReader(ByteBuffer buffer, Charset charset, Runnable onClose) {
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.buffer = buffer;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, chars.length);
+        if (closed) throw new IOException("Stream closed");
+        if (length == 0) return 0;
+        if (!pending.hasRemaining() && length < 2) {
+            decode(pending.clear());
+            pending.flip();
+        }
+        if (pending.hasRemaining()) {
+            var read = Math.min(length, pending.remaining());
+            pending.get(chars, offset, read);
+            return read;
+        }
+        var output = CharBuffer.wrap(chars, offset, length);
+        decode(output);
+        var read = output.position() - offset;
+        return read == 0 ? -1 : read;
+    }
+
+    private void decode(CharBuffer output) throws IOException {
+        if (!decoded) {
+            var result = decoder.decode(buffer, output, true);
+            if (result.isError()) result.throwException();
+            if (result.isOverflow()) return;
+            decoded = true;
+        }
+        if (flushed) return;
+        var result = decoder.flush(output);
+        if (result.isError()) result.throwException();
+        flushed = result.isUnderflow();
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        onClose.run();
+    }
+}
@@ -0,0 +1,101 @@
+package core.file;
+
+import core.file.FileIOListener.Measurement;
+import core.file.FileIOListener.Operation;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Measures a single operation of a {@link FileIO} instance for flight recordings and {@link FileIOListener listeners}.
+ * <p>
+ * If neither is interested in an operation, a shared probe is returned that does nothing at all.
+ */
+final class Probe {
+    private static final System.Logger LOGGER = System.getLogger(Probe.class.getName());
+    private static final Probe DISABLED = new Probe(Operation.LOAD, Path.of(""), null, new FileIOListener[0]);
+
+    private static volatile FileIOListener[] listeners = new FileIOListener[0];
+    private static volatile Predicate<Thread> mainThread = thread ->
+            thread.getName().equals("main") || thread.getName().equals("Server thread");
+
+    private final Operation operation;
+    private final Path file;
+    private final @Nullable FileEvent event;
+    private final FileIOListener[] interested;
+    private final long start;
+
+    private Probe(Operation operation, Path file, @Nullable FileEvent event, FileIOListener[] interested) {
+        this.operation = operation;
+        this.file = file;
+        this.event = event;
+        this.interested = interested;
+        this.start = System.nanoTime();
+    }
+
+    static Probe begin(Operation operation, Path file) {
+        var event = FileEvent.of(operation);
+        var listeners = Probe.listeners;
+        if (!event.isEnabled() && listeners.length == 0) return DISABLED;
+        if (event.isEnabled()) event.begin();
+        return new Probe(operation, file, event.isEnabled() ? event : null, listeners);
+    }
+
+    /**
+     * Finishes the measurement of the operation.
+     *
+     * @param bytes  the amount of bytes the operation processed
+     * @param failed whether the operation failed
+     */
+    void end(long bytes, boolean failed) {
+        if (this == DISABLED) return;
+        var duration = System.nanoTime() - start;
+        var thread = Thread.currentThread();
+        var main = mainThread.test(thread);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = file.toString();
+                event.bytes = bytes;
+                event.mainThread = main;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+        if (interested.length == 0) return;
+        var measurement = new Measurement(operation, file, bytes, Duration.ofNanos(duration), thread, main, failed);
+        for (var listener : interested) {
+            try {
+                listener.onOperation(measurement);
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "Listener failed to handle " + operation + " of " + file, e);
+            }
+        }
+    }
+
+    static synchronized void addListener(FileIOListener listener) {
+        var listeners = Arrays.copyOf(Probe.listeners, Probe.listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        Probe.listeners = listeners;
+    }
+
+    static synchronized boolean removeListener(FileIOListener listener) {
+        var listeners = Probe.listeners;
+        for (var i = 0; i < listeners.length; i++) {
+            if (listeners[i] != listener) continue;
+            var remaining = new FileIOListener[listeners.length - 1];
+            System.arraycopy(listeners, 0, remaining, 0, i);
+            System.arraycopy(listeners, i + 1, remaining, i, remaining.length - i);
+            Probe.listeners = remaining;
+            return true;
+        }
+        return false;
+    }
+
+    static void setMainThread(Predicate<Thread> predicate) {
+        mainThread = predicate;
+    }
+}
@@ -0,0 +1,295 @@
+package core.file;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Saves dirty {@link FileIO} instances in the background without exceeding an I/O budget.
+ * <p>
+ * The budget is enforced by a token bucket refilled at the configured rate,
+ * either in bytes or in save operations per second, and holding up to the configured burst.
+ * In byte budgets, each save is charged the size of the previous content up front,
+ * and corrected by the size of the written content afterward.
+ * Saves that turn out to be unnecessary, since the content did not change, are refunded in both budgets.
+ * <p>
+ * Files are saved one at a time on a virtual thread, the one dirty for the longest time first.
+ * The age is divided by one plus the size of the file in mebibytes,
+ * so small files are not held up by large ones, while large files still can't starve.
+ * Failed saves are retried after a few seconds, keeping the age of the file.
+ * <p>
+ * {@link #close() Closing} the scheduler saves all pending files immediately, regardless of the budget,
+ * which should be done on shutdown.
+ */
+public final class SaveScheduler implements AutoCloseable {
+    private static final System.Logger LOGGER = System.getLogger(SaveScheduler.class.getName());
+    private static final double SIZE_SCALE = 1 << 20;
+    private static final long RETRY_DELAY = TimeUnit.SECONDS.toNanos(5);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<FileIO<?>, Pending> dirty = new HashMap<>();
+
+    private final Budget budget;
+    private final double rate;
+    private final double burst;
+    private final Thread worker;
+
+    private volatile Duration delay = Duration.ZERO;
+    private double tokens;
+    private long refilled = System.nanoTime();
+    private boolean running = true;
+
+    /**
+     * Construct a new SaveScheduler providing a budget, its rate, and the maximum burst
+     *
+     * @param budget the unit of the budget
+     * @param rate   the amount of bytes or operations that may be spent per second
+     * @param burst  the amount of bytes or operations that may be spent at once after being idle
+     * @throws IllegalArgumentException if the rate or burst is not positive
+     */
+    public SaveScheduler(Budget budget, long rate, long burst) {
+        if (rate <= 0 || burst <= 0) throw new IllegalArgumentException("Rate and burst must be positive");
+        this.budget = budget;
+        this.rate = rate;
+        this.burst = burst;
+        this.tokens = burst;
+        this.worker = Thread.ofVirtual().name("SaveScheduler").start(this::run);
+    }
+
+    /**
+     * Construct a new SaveScheduler providing a budget and its rate, allowing bursts of one second
+     *
+     * @param budget the unit of the budget
+     * @param rate   the amount of bytes or operations that may be spent per second
+     * @throws IllegalArgumentException if the rate is not positive
+     */
+    public SaveScheduler(Budget budget, long rate) {
+        this(budget, rate, rate);
+    }
+
+    /**
+     * Marks the given instance as dirty, so it is saved once its turn comes and the budget allows.
+     * <p>
+     * Marking an instance that is already pending keeps the time it first became dirty.
+     *
+     * @param file the instance to save
+     * @throws IllegalStateException if the scheduler was closed
+     */
+    public void markDirty(FileIO<?> file) {
+        lock.lock();
+        try {
+            if (!running) throw new IllegalStateException("Scheduler was closed");
+            var now = System.nanoTime();
+            if (dirty.putIfAbsent(file, new Pending(now, now)) == null) changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the amount of instances waiting to be saved.
+     *
+     * @return the amount of pending instances
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return dirty.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the minimum time instances stay dirty before they are saved,
+     * so that bursts of changes to the same file are coalesced into one save.
+     *
+     * @param delay the delay
+     * @return the own instance
+     */
+    public SaveScheduler setDelay(Duration delay) {
+        this.delay = delay;
+        lock.lock();
+        try {
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * Retrieves the minimum time instances stay dirty before they are saved.
+     *
+     * @return the delay
+     */
+    public Duration getDelay() {
+        return delay;
+    }
+
+    /**
+     * Retrieves the unit of the budget.
+     *
+     * @return the budget
+     */
+    public Budget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Immediately saves all pending instances as one {@link FileSaver group}, regardless of the budget,
+     * and waits for them to finish.
+     *
+     * @return the result of the saves
+     */
+    public FileSaver.Result<FileIO<?>> flush() {
+        var pending = new ArrayList<FileIO<?>>();
+        lock.lock();
+        try {
+            pending.addAll(dirty.keySet());
+            dirty.clear();
+        } finally {
+            lock.unlock();
+        }
+        return FileSaver.saveAll(pending).join();
+    }
+
+    /**
+     * Stops the background saves and immediately saves all pending instances.
+     * <p>
+     * Failures are logged, use {@link #flush()} before closing to handle them.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!running) return;
+            running = false;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush().failures().forEach((file, failure) ->
+                LOGGER.log(System.Logger.Level.WARNING, "Failed to save " + file, failure));
+    }
+
+    private void run() {
+        while (true) {
+            Map.Entry<FileIO<?>, Pending> next;
+            double charged;
+            lock.lock();
+            try {
+                next = next();
+                if (next == null) return;
+                charged = cost(next.getKey());
+                tokens -= charged;
+                dirty.remove(next.getKey(), next.getValue());
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            save(next.getKey(), next.getValue(), charged);
+        }
+    }
+
+    /**
+     * Waits until the most urgent instance is due and the budget allows saving it.
+     *
+     * @return the instance and its pending state, or null once the scheduler was closed
+     * @throws InterruptedException if the worker was interrupted
+     */
+    private Map.@Nullable Entry<FileIO<?>, Pending> next() throws InterruptedException {
+        while (running) {
+            var now = System.nanoTime();
+            var delay = this.delay.toNanos();
+            var next = dirty.entrySet().stream()
+                    .filter(entry -> entry.getValue().remaining(now, delay) <= 0)
+                    .max(Comparator.comparingDouble(entry -> priority(entry.getKey(), now - entry.getValue().since())));
+            if (next.isEmpty()) {
+                var earliest = dirty.values().stream().mapToLong(pending -> pending.remaining(now, delay)).min();
+                if (earliest.isPresent()) changed.awaitNanos(Math.max(1, earliest.getAsLong()));
+                else changed.await();
+                continue;
+            }
+            tokens = Math.min(burst, tokens + (now - refilled) * rate / TimeUnit.SECONDS.toNanos(1));
+            refilled = now;
+            var required = Math.min(cost(next.get().getKey()), burst);
+            if (tokens >= required) return Map.entry(next.get().getKey(), next.get().getValue());
+            changed.awaitNanos((long) Math.ceil((required - tokens) / rate * TimeUnit.SECONDS.toNanos(1)));
+        }
+        return null;
+    }
+
+    private void save(FileIO<?> file, Pending pending, double charged) {
+        var previous = file.fingerprint();
+        try {
+            file.save();
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Failed to save " + file.getFile() + ", retrying later", e);
+            lock.lock();
+            try {
+                // retry once the delay passed, without holding up other files in the meantime,
+                // but keep the age, so the file is not ranked behind everything marked since
+                if (running) dirty.put(file, new Pending(pending.since(), System.nanoTime() + RETRY_DELAY));
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        var spent = file.fingerprint() != previous ? cost(file) : 0;
+        lock.lock();
+        try {
+            tokens += charged - spent;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double cost(FileIO<?> file) {
+        return budget == Budget.BYTES_PER_SECOND ? file.contentSize() : 1;
+    }
+
+    private static double priority(FileIO<?> file, long age) {
+        return age / (1 + file.contentSize() / SIZE_SCALE);
+    }
+
+    /**
+     * The state of a pending instance.
+     *
+     * @param since   the time the instance became dirty
+     * @param retryAt the earliest time the instance may be saved again after a failed save
+     */
+    private record Pending(long since, long retryAt) {
+        private long remaining(long now, long delay) {
+            return Math.max(since + delay - now, retryAt - now);
+        }
+    }
+
+    /**
+     * The units a budget can be expressed in.
+     */
+    public enum Budget {
+        /**
+         * The budget limits the amount of bytes written per second
+         */
+        BYTES_PER_SECOND,
+        /**
+         * The budget limits the amount of saves per second
+         */
+        OPERATIONS_PER_SECOND
+    }
+}
@@ -0,0 +1,39 @@
+package core.file;
+
+import java.util.List;
+
+/**
+ * The outcome of validating the root object of a {@link Validatable} instance.
+ * <p>
+ * Paths consist of member names separated by dots and array indices in brackets,
+ * such as {@code settings.limits.maxPlayers} or {@code worlds[0].name}.
+ *
+ * @param filtered the paths of unused values that were removed
+ * @param filled   the paths of missing values that were filled in with their defaults
+ */
+public record ValidationReport(List<String> filtered, List<String> filled) {
+    /**
+     * A report of a validation that changed nothing.
+     */
+    public static final ValidationReport EMPTY = new ValidationReport(List.of(), List.of());
+
+    /**
+     * Construct a new ValidationReport providing the filtered and filled paths
+     *
+     * @param filtered the paths of unused values that were removed
+     * @param filled   the paths of missing values that were filled in with their defaults
+     */
+    public ValidationReport {
+        filtered = List.copyOf(filtered);
+        filled = List.copyOf(filled);
+    }
+
+    /**
+     * Determines whether the validation changed the root object.
+     *
+     * @return whether any value was filtered or filled
+     */
+    public boolean hasChanges() {
+        return !filtered.isEmpty() || !filled.isEmpty();
+    }
+}
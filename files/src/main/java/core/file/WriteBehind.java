@@ -0,0 +1,68 @@
+package core.file;
+
+import java.nio.file.attribute.FileAttribute;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Schedules asynchronous saves of {@link FileIO} instances on a dedicated I/O executor.
+ */
+final class WriteBehind {
+    static final Executor EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("FileIO-", 0).factory()
+    );
+
+    private static final Set<Task<?>> pending = ConcurrentHashMap.newKeySet();
+
+    private WriteBehind() {
+    }
+
+    static void schedule(Task<?> task, Duration delay) {
+        pending.add(task);
+        if (delay.isZero() || delay.isNegative()) EXECUTOR.execute(task);
+        else CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS, EXECUTOR).execute(task);
+    }
+
+    static void flush() {
+        var futures = pending.stream().map(task -> {
+            EXECUTOR.execute(task);
+            return task.future;
+        }).toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+    }
+
+    static final class Task<R> implements Runnable {
+        private final CompletableFuture<FileIO<R>> future = new CompletableFuture<>();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final FileAttribute<?>[] attributes;
+        private final FileIO<R> file;
+
+        Task(FileIO<R> file, FileAttribute<?>[] attributes) {
+            this.file = file;
+            this.attributes = attributes;
+        }
+
+        CompletableFuture<FileIO<R>> future() {
+            return future;
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) return;
+            try {
+                file.completePendingSave(this);
+                future.complete(file.save(attributes));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                pending.remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package core.file.formats;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A {@link GsonFile} storing its content GZIP compressed.
+ * <p>
+ * The content is compressed while it is saved and decompressed while it is loaded,
+ * which is well suited for large files that are rarely edited by hand.
+ *
+ * @param <R> the type of the root object in the JSON structure
+ */
+public class CompressedGsonFile<R> extends GsonFile<R> {
+    private static final int BUFFER_SIZE = 8192;
+
+    private volatile int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * Construct a new CompressedGsonFile providing a file, default root object, type, and gson instance
+     *
+     * @param file the file to read from and write to
+     * @param root the default root object
+     * @param type the root type
+     * @param gson the gson instance
+     */
+    public CompressedGsonFile(Path file, R root, Type type, Gson gson) {
+        super(file, root, type, gson);
+    }
+
+    /**
+     * Construct a new CompressedGsonFile providing a file, default root object, type-token, and gson instance
+     *
+     * @param file  the file to read from and write to
+     * @param root  the default root object
+     * @param token the type-token
+     * @param gson  the gson instance
+     */
+    public CompressedGsonFile(Path file, R root, TypeToken<R> token, Gson gson) {
+        super(file, root, token, gson);
+    }
+
+    /**
+     * Construct a new CompressedGsonFile providing a file, default root object and gson instance
+     *
+     * @param file the file to read from and write to
+     * @param root the default root object
+     * @param gson the gson instance
+     */
+    public CompressedGsonFile(Path file, R root, Gson gson) {
+        super(file, root, gson);
+    }
+
+    /**
+     * Construct a new CompressedGsonFile providing a file, default root object and type
+     *
+     * @param file the file to read from and write to
+     * @param root the default root object
+     * @param type the root type
+     */
+    public CompressedGsonFile(Path file, R root, Type type) {
+        super(file, root, type);
+    }
+
+    /**
+     * Construct a new CompressedGsonFile providing a file, default root object, and type-token
+     *
+     * @param file  the file to read from and write to
+     * @param root  the default root object
+     * @param token the type-token
+     */
+    public CompressedGsonFile(Path file, R root, TypeToken<R> token) {
+        super(file, root, token);
+    }
+
+    /**
+     * Construct a new CompressedGsonFile providing a file and default root object
+     *
+     * @param file the file to read from and write to
+     * @param root the default root object
+     */
+    public CompressedGsonFile(Path file, R root) {
+        super(file, root);
+    }
+
+    @Override
+    protected Reader newReader() throws IOException {
+        return new InputStreamReader(decode(newInputStream()), getCharset());
+    }
+
+    @Override
+    protected InputStream decode(InputStream input) throws IOException {
+        return new GZIPInputStream(input, BUFFER_SIZE);
+    }
+
+    @Override
+    protected OutputStream encode(OutputStream output) throws IOException {
+        return new GZIPOutputStream(output, BUFFER_SIZE) {
+            {
+                def.setLevel(compressionLevel);
+            }
+        };
+    }
+
+    /**
+     * Sets the level used to compress the content when it is saved.
+     *
+     * @param compressionLevel the compression level from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+     * @return the own instance
+     * @throws IllegalArgumentException if the compression level is invalid
+     */
+    public CompressedGsonFile<R> setCompressionLevel(int compressionLevel) {
+        if ((compressionLevel < 0 || compressionLevel > 9) && compressionLevel != Deflater.DEFAULT_COMPRESSION)
+            throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    /**
+     * Retrieves the level used to compress the content when it is saved.
+     *
+     * @return the compression level
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+}
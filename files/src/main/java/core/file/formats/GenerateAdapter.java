@@ -0,0 +1,34 @@
+package core.file.formats;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record or class to have a streaming Gson {@link com.google.gson.TypeAdapter TypeAdapter}
+ * generated for it at compile time, which replaces reflective serialization.
+ * <p>
+ * The adapter is generated next to the annotated type by the annotation processor published separately as
+ * {@code net.thenextlvl.core:files-processor}, which has to be added to the annotation processor path explicitly.
+ * It is registered automatically by {@link GsonFile} instances storing the annotated type,
+ * or by any Gson instance using the {@link GeneratedAdapterFactory}.
+ * <p>
+ * Annotated types must not be private or generic.
+ * Classes additionally need a non-private no-argument constructor,
+ * and all of their serialized fields have to be non-private and non-final,
+ * inherited ones also public or declared in the same package.
+ * Member names are taken from {@link com.google.gson.annotations.SerializedName SerializedName} or the field name,
+ * while member values are written and read by the adapters of the Gson instance, including registered ones.
+ * <p>
+ * Types using {@link com.google.gson.annotations.JsonAdapter JsonAdapter}, {@link com.google.gson.annotations.Expose Expose}
+ * or alternate serialized names are rejected at compile time,
+ * and Gson instances using a field naming strategy or exclusions keep serializing reflectively,
+ * so generated adapters never change what is written.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface GenerateAdapter {
+}
@@ -0,0 +1,120 @@
+package core.file.formats;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+/**
+ * A factory providing the type adapters generated for types annotated with {@link GenerateAdapter}.
+ * <p>
+ * Generated adapters are named after the annotated type,
+ * with all enclosing type names joined by an underscore and {@value #SUFFIX} appended.
+ */
+public final class GeneratedAdapterFactory implements TypeAdapterFactory {
+    /**
+     * The suffix of the names of generated adapters.
+     */
+    public static final String SUFFIX = "_GsonAdapter";
+
+    private static final GeneratedAdapterFactory INSTANCE = new GeneratedAdapterFactory();
+    private static final Object DEFAULT_EXCLUDER = excluder(new Gson());
+    private static final Map<Gson, Gson> EXTENDED = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final ClassValue<Optional<Constructor<?>>> ADAPTERS = new ClassValue<>() {
+        @Override
+        protected Optional<Constructor<?>> computeValue(Class<?> type) {
+            var name = type.getPackageName().isEmpty() ? type.getName()
+                    : type.getName().substring(type.getPackageName().length() + 1);
+            var prefix = type.getPackageName().isEmpty() ? "" : type.getPackageName() + ".";
+            try {
+                var adapter = Class.forName(prefix + name.replace('$', '_') + SUFFIX, false, type.getClassLoader());
+                if (!TypeAdapter.class.isAssignableFrom(adapter)) return Optional.empty();
+                return Optional.of(adapter.getConstructor(Gson.class));
+            } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+                return Optional.empty();
+            }
+        }
+    };
+
+    private GeneratedAdapterFactory() {
+    }
+
+    /**
+     * Retrieves the shared factory instance.
+     *
+     * @return the factory
+     */
+    public static GeneratedAdapterFactory instance() {
+        return INSTANCE;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getType() != type.getRawType() || !isCompatible(gson)) return null;
+        var constructor = ADAPTERS.get(type.getRawType());
+        if (constructor.isEmpty()) return null;
+        try {
+            return (TypeAdapter<T>) constructor.get().newInstance(gson);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create generated adapter for " + type, e);
+        }
+    }
+
+    /**
+     * Determines whether an adapter was generated for the given type.
+     *
+     * @param type the type
+     * @return whether a generated adapter exists
+     */
+    public static boolean hasAdapter(Type type) {
+        return type instanceof Class<?> raw && ADAPTERS.get(raw).isPresent();
+    }
+
+    /**
+     * Determines whether generated adapters serialize like the reflective adapters of the given Gson instance.
+     * <p>
+     * This is not the case for instances using a field naming strategy, exclusion strategies,
+     * modifier exclusions, versioning, or requiring {@link com.google.gson.annotations.Expose Expose},
+     * since generated adapters don't apply them.
+     * All other settings, such as registered adapters or the long serialization policy,
+     * apply to generated adapters as well, since they resolve the adapters of their members from the Gson instance.
+     *
+     * @param gson the gson instance
+     * @return whether generated adapters can be used
+     */
+    public static boolean isCompatible(Gson gson) {
+        return gson.fieldNamingStrategy() == FieldNamingPolicy.IDENTITY && excluder(gson) == DEFAULT_EXCLUDER;
+    }
+
+    // the excluder is the only way to tell whether any exclusion is configured
+    @SuppressWarnings("deprecation")
+    private static Object excluder(Gson gson) {
+        return gson.excluder();
+    }
+
+    /**
+     * Retrieves a Gson instance that uses generated adapters, if one was generated for the given root type
+     * and the given instance {@link #isCompatible(Gson) is compatible}.
+     * <p>
+     * Extended instances are shared for every given Gson instance.
+     *
+     * @param gson the gson instance
+     * @param type the root type
+     * @return the given gson instance, or a copy of it registering this factory
+     */
+    static Gson extend(Gson gson, Type type) {
+        if (!hasAdapter(type) || !isCompatible(gson)) return gson;
+        return EXTENDED.computeIfAbsent(gson, ignored -> gson.newBuilder().registerTypeAdapterFactory(INSTANCE).create());
+    }
+}
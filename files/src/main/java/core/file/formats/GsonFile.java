@@ -3,32 +3,39 @@ package core.file.formats;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import core.file.FileIO;
+import core.file.FileIOListener;
 import core.file.Validatable;
-import org.jspecify.annotations.NullMarked;
+import core.file.ValidationReport;
 import org.jspecify.annotations.Nullable;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
-
-import static java.nio.file.StandardOpenOption.CREATE;
-import static java.nio.file.StandardOpenOption.READ;
-import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
-import static java.nio.file.StandardOpenOption.WRITE;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The {@code GsonFile} class extends {@code FileIO} to provide methods for reading
  * and writing JSON data using the Gson library.
  * This class supports validation of JSON structures and handling default values for root elements.
+ * <p>
+ * Roots annotated with {@link GenerateAdapter} are read and written using their generated adapters.
  *
  * @param <R> the type of the root object in the JSON structure
  */
@@ -41,6 +48,12 @@ public class GsonFile<R> extends FileIO<R> implements Validatable<R> {
     private final Type type;
     private final Gson gson;
 
+    private volatile ValidationReport validationReport = ValidationReport.EMPTY;
+    private volatile @Nullable Scope loadValidation;
+    private volatile @Nullable JsonSchema schema;
+    private volatile boolean deepValidation;
+    private volatile boolean snapshotEnabled;
+
     /**
      * Construct a new GsonFile providing a file, default root object, type, and gson instance
      *
@@ -53,7 +66,7 @@ public class GsonFile<R> extends FileIO<R> implements Validatable<R> {
         super(file, root);
         this.defaultRoot = root;
         this.type = type;
-        this.gson = gson;
+        this.gson = GeneratedAdapterFactory.extend(gson, type);
     }
 
     /**
@@ -118,43 +131,269 @@ public class GsonFile<R> extends FileIO<R> implements Validatable<R> {
     @Override
     protected R load() {
         if (!Files.isReadable(getFile())) return getRoot();
-        try (var reader = new JsonReader(new InputStreamReader(
-                Files.newInputStream(getFile(), READ),
-                getCharset()
-        ))) {
-            R root = getGson().<@Nullable R>fromJson(reader, getType());
+        if (snapshotEnabled) {
+            var root = loadSnapshot();
+            if (root != null) return root;
+        }
+        try (var reader = new JsonReader(newReader())) {
+            var scope = loadValidation;
+            R root = scope != null ? fromValidatedTree(JsonParser.parseReader(reader), scope)
+                    : getGson().<@Nullable R>fromJson(reader, getType());
             return root != null ? root : defaultRoot;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private @Nullable R loadSnapshot() {
+        try {
+            var attributes = Files.readAttributes(getFile(), BasicFileAttributes.class);
+            var snapshot = JsonSnapshot.read(getSnapshotFile(), attributes);
+            if (snapshot == null) return null;
+            var scope = loadValidation;
+            R root = scope != null ? fromValidatedTree(snapshot.tree(), scope)
+                    : getGson().<@Nullable R>fromJson(snapshot.tree(), getType());
+            setContentDigest(snapshot.digest(), attributes);
+            return root != null ? root : defaultRoot;
+        } catch (IOException | RuntimeException e) {
+            // missing or unusable snapshots fall back to the json file
+            return null;
+        }
+    }
+
+    private @Nullable R fromValidatedTree(JsonElement tree, Scope scope) {
+        if (tree.isJsonNull()) return null;
+        validationReport = getSchema().validate(tree, scope);
+        return getGson().<@Nullable R>fromJson(tree, getType());
+    }
+
     @Override
-    @NullMarked
-    public FileIO<R> save(FileAttribute<?>... attributes) {
+    protected void write(R root, Writer writer) {
+        getGson().toJson(root, getType(), writer);
+    }
+
+    /**
+     * Creates a deep copy of the given root object by converting it to a json tree and back.
+     * <p>
+     * Since arbitrary root types can't reject modifications, {@link #snapshot() snapshots} are such copies as well,
+     * which must not be modified.
+     *
+     * @param root the root object to copy
+     * @return the copy of the root object
+     */
+    @Override
+    protected R copy(R root) {
+        return getGson().fromJson(getGson().toJsonTree(root, getType()), getType());
+    }
+
+    @Override
+    protected void onSaved(ByteBuffer content) throws IOException {
+        if (!snapshotEnabled) return;
+        var attributes = Files.readAttributes(getFile(), BasicFileAttributes.class);
+        var digest = getContentDigest();
+        if (digest == null || JsonSnapshot.isCurrent(getSnapshotFile(), attributes)) return;
+        try (var reader = newReader(content)) {
+            new JsonSnapshot(digest, JsonParser.parseReader(reader)).write(getSnapshotFile(), attributes);
+        }
+    }
+
+    /**
+     * Streams the elements of the array stored in the file, decoding them one at a time as they are consumed.
+     * <p>
+     * Unlike {@link #getRoot()}, this never holds more than a single element in memory,
+     * and only reads the file as far as the stream is consumed.
+     * The returned stream keeps the file open and must be closed after use.
+     *
+     * @param type the element type
+     * @param <T>  the type of the elements
+     * @return a lazily populated stream of the elements, empty if the file doesn't exist
+     * @throws IllegalStateException if the stored JSON value is not an array
+     */
+    public <T> Stream<T> streamElements(Type type) {
+        if (!Files.isReadable(getFile())) return Stream.empty();
         try {
-            var root = getRoot();
-            Files.createDirectories(getFile().toAbsolutePath().getParent());
-            try (var writer = new BufferedWriter(new OutputStreamWriter(
-                    Files.newOutputStream(getFile(), WRITE, CREATE, TRUNCATE_EXISTING),
-                    getCharset()
-            ))) {
-                getGson().toJson(root, getType(), writer);
-                return this;
+            var input = Files.newInputStream(getFile());
+            try {
+                var reader = getGson().newJsonReader(new InputStreamReader(decode(input), getCharset()));
+                reader.beginArray();
+                return StreamSupport.stream(new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+                    @Override
+                    public boolean tryAdvance(Consumer<? super T> action) {
+                        try {
+                            if (!reader.hasNext()) return false;
+                            action.accept(getGson().fromJson(reader, type));
+                            return true;
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }, false).onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                input.close();
+                throw e;
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Streams the elements of the array stored in the file, decoding them one at a time as they are consumed.
+     *
+     * @param token the element type-token
+     * @param <T>   the type of the elements
+     * @return a lazily populated stream of the elements, empty if the file doesn't exist
+     * @throws IllegalStateException if the stored JSON value is not an array
+     * @see #streamElements(Type)
+     */
+    public <T> Stream<T> streamElements(TypeToken<T> token) {
+        return streamElements(token.getType());
+    }
+
+    /**
+     * Saves the given elements as a JSON array, encoding them one at a time as they are consumed.
+     * <p>
+     * Unlike {@link #save(FileAttribute[])}, this never holds more than a single element in memory.
+     * The root object is loaded again from the file on next access.
+     *
+     * @param elements   the elements to save
+     * @param type       the element type
+     * @param attributes the file attributes to apply when the file is created
+     * @param <T>        the type of the elements
+     * @return the own instance
+     */
+    public <T> GsonFile<R> saveElements(Iterator<? extends T> elements, Type type, FileAttribute<?>... attributes) {
+        saveStreaming(writer -> {
+            var json = getGson().newJsonWriter(writer);
+            json.beginArray();
+            while (elements.hasNext()) getGson().toJson(elements.next(), type, json);
+            json.endArray();
+            json.flush();
+        }, attributes);
+        return this;
+    }
+
+    @Override
+    public boolean delete() throws IOException {
+        Files.deleteIfExists(getSnapshotFile());
+        return super.delete();
+    }
+
+    @Override
+    protected Set<String> diff(R previous, R current) {
+        var previousTree = getGson().toJsonTree(previous, getType());
+        var currentTree = getGson().toJsonTree(current, getType());
+        if (previousTree.equals(currentTree)) return Set.of();
+        if (!previousTree.isJsonObject() || !currentTree.isJsonObject()) return Set.of("");
+        var previousObject = previousTree.getAsJsonObject();
+        var currentObject = currentTree.getAsJsonObject();
+        var changes = new HashSet<String>();
+        previousObject.keySet().forEach(key -> {
+            if (!previousObject.get(key).equals(currentObject.get(key))) changes.add(key);
+        });
+        currentObject.keySet().forEach(key -> {
+            if (!previousObject.has(key)) changes.add(key);
+        });
+        return changes;
+    }
+
     @Override
     public FileIO<R> validate(Scope scope) {
-        if (!Files.isRegularFile(getFile())) return this;
-        var defaultTree = getGson().toJsonTree(defaultRoot, getType());
-        var currentTree = getGson().toJsonTree(getRoot(), getType());
-        var validatedTree = validate(scope, defaultTree, currentTree);
-        if (currentTree.equals(validatedTree)) return this;
-        return setRoot(getGson().fromJson(validatedTree, getType()));
+        validateWithReport(scope);
+        return this;
+    }
+
+    /**
+     * Validate the current root object against the default root object providing a {@link Scope scope}
+     * <p>
+     * The root is validated in a single pass over its serialized tree,
+     * against a schema compiled once from the default root object.
+     * Only the members of the root object are validated, unless {@link #setDeepValidation(boolean) deep validation}
+     * is enabled.
+     *
+     * @param scope the validation scope
+     * @return the report of all values that were filtered or filled
+     * @see #setLoadValidation(Scope)
+     */
+    public ValidationReport validateWithReport(Scope scope) {
+        if (!Files.isRegularFile(getFile())) return ValidationReport.EMPTY;
+        return measure(FileIOListener.Operation.VALIDATE, () -> {
+            var tree = getGson().toJsonTree(getRoot(), getType());
+            var report = getSchema().validate(tree, scope);
+            validationReport = report;
+            if (report.hasChanges()) setRoot(getGson().fromJson(tree, getType()));
+            return report;
+        });
+    }
+
+    /**
+     * Sets the scope the content is validated with whenever it is loaded,
+     * which happens on the parsed tree before it is deserialized, saving a separate validation cycle.
+     *
+     * @param scope the validation scope, or null to not validate the content when it is loaded
+     * @return the own instance
+     * @see #getValidationReport()
+     */
+    public GsonFile<R> setLoadValidation(@Nullable Scope scope) {
+        this.loadValidation = scope;
+        return this;
+    }
+
+    /**
+     * Retrieves the scope the content is validated with whenever it is loaded.
+     *
+     * @return the validation scope, or null if the content is not validated when it is loaded
+     */
+    public @Nullable Scope getLoadValidation() {
+        return loadValidation;
+    }
+
+    /**
+     * Retrieves the report of the last validation, made either explicitly or when the content was loaded.
+     *
+     * @return the last validation report
+     */
+    public ValidationReport getValidationReport() {
+        return validationReport;
+    }
+
+    /**
+     * Sets whether validation descends into nested values of a known type, rather than only validating the root members.
+     * <p>
+     * Nested objects then lose all members their default value doesn't declare and gain the ones it does,
+     * and the elements of arrays are validated against the first element of the default array.
+     * Maps, JSON elements, and values whose type isn't known from the root type are never validated,
+     * since their keys are data rather than structure.
+     *
+     * @param deepValidation whether validation is deep
+     * @return the own instance
+     */
+    public GsonFile<R> setDeepValidation(boolean deepValidation) {
+        this.deepValidation = deepValidation;
+        this.schema = null;
+        return this;
+    }
+
+    /**
+     * Determines whether validation descends into nested values of a known type.
+     *
+     * @return whether validation is deep
+     */
+    public boolean isDeepValidation() {
+        return deepValidation;
+    }
+
+    private JsonSchema getSchema() {
+        var schema = this.schema;
+        if (schema != null) return schema;
+        var tree = getGson().toJsonTree(defaultRoot, getType());
+        return this.schema = JsonSchema.compile(tree, getType(), getGson().fieldNamingStrategy(), deepValidation);
     }
 
     /**
@@ -167,33 +406,44 @@ public class GsonFile<R> extends FileIO<R> implements Validatable<R> {
     }
 
     /**
-     * Retrieves the type of object stored by this instance.
+     * Sets whether a binary snapshot of the json file is written next to it on save.
+     * <p>
+     * As long as the snapshot matches the size and modification time of the json file,
+     * it is loaded instead of parsing the json file, which stays the editable source of truth.
      *
-     * @return the type of object stored by this instance
+     * @param snapshotEnabled whether snapshots are used
+     * @return the own instance
+     * @see #getSnapshotFile()
      */
-    public Type getType() {
-        return type;
-    }
-
-    private static JsonElement validate(Scope scope, JsonElement defaultTree, JsonElement currentTree) {
-        if (!defaultTree.isJsonObject() || !currentTree.isJsonObject()) return currentTree;
-        return validate(scope, defaultTree.getAsJsonObject(), currentTree.getAsJsonObject());
+    public GsonFile<R> setSnapshotEnabled(boolean snapshotEnabled) {
+        this.snapshotEnabled = snapshotEnabled;
+        return this;
     }
 
-    private static JsonObject validate(Scope scope, JsonObject defaultTree, JsonObject currentTree) {
-        var currentCopy = currentTree.deepCopy();
-        if (scope.isFiltering()) filterUnused(defaultTree, currentCopy);
-        if (scope.isFilling()) fillMissing(defaultTree, currentCopy);
-        return currentCopy;
+    /**
+     * Determines whether a binary snapshot of the json file is written next to it on save.
+     *
+     * @return whether snapshots are used
+     */
+    public boolean isSnapshotEnabled() {
+        return snapshotEnabled;
     }
 
-    private static void fillMissing(JsonObject defaultTree, JsonObject currentCopy) {
-        defaultTree.entrySet().stream()
-                .filter(entry -> !currentCopy.has(entry.getKey()))
-                .forEach(entry -> currentCopy.add(entry.getKey(), entry.getValue()));
+    /**
+     * Retrieves the file the binary snapshot of the json file is stored in.
+     *
+     * @return the snapshot file
+     */
+    public Path getSnapshotFile() {
+        return getFile().resolveSibling(getFile().getFileName() + ".snapshot");
     }
 
-    private static void filterUnused(JsonObject defaultTree, JsonObject currentCopy) {
-        currentCopy.entrySet().removeIf(entry -> !defaultTree.has(entry.getKey()));
+    /**
+     * Retrieves the type of object stored by this instance.
+     *
+     * @return the type of object stored by this instance
+     */
+    public Type getType() {
+        return type;
     }
 }
@@ -2,9 +2,26 @@ package core.file.formats;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import core.file.FileIO;
+import core.file.FileStamp;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A class for handling JSON files using Gson.
@@ -16,6 +33,11 @@ import java.nio.file.Path;
  */
 @NullMarked
 public class JsonFile<R extends JsonElement> extends GsonFile<R> {
+    private static final int MAXIMUM_CACHED_QUERIES = 256;
+
+    private final Map<String, Optional<JsonElement>> queries = new ConcurrentHashMap<>();
+    private volatile @Nullable FileStamp stamp;
+
     /**
      * Construct a new JsonFile providing a file, default root object and gson instance
      *
@@ -36,5 +58,144 @@ public class JsonFile<R extends JsonElement> extends GsonFile<R> {
     public JsonFile(Path file, R root) {
         super(file, root);
     }
-}
 
+    /**
+     * Retrieves the value at the given path, such as {@code settings.limits.maxPlayers} or {@code worlds[0].name}.
+     * <p>
+     * Once the root object is loaded, the path is resolved against it.
+     * Until then, the file is scanned with a streaming reader that skips all subtrees not on the path,
+     * so point reads don't require parsing the whole document.
+     * Results of such scans are cached until the file is modified or {@link #reload() reloaded}.
+     *
+     * @param path the path of the value, consisting of member names separated by dots and array indices in brackets
+     * @return the value at the path, or null if there is none
+     * @throws IllegalArgumentException if the path is malformed
+     */
+    public @Nullable JsonElement query(String path) {
+        var segments = parse(path);
+        if (isLoaded() || !Files.isRegularFile(getFile())) return resolve(getRoot(), segments);
+        try {
+            var stamp = FileStamp.of(getFile());
+            if (!stamp.equals(this.stamp)) {
+                queries.clear();
+                this.stamp = stamp;
+            }
+            var cached = queries.get(path);
+            if (cached == null) {
+                cached = Optional.ofNullable(scan(segments));
+                if (queries.size() >= MAXIMUM_CACHED_QUERIES) queries.clear();
+                queries.put(path, cached);
+            }
+            return cached.map(JsonElement::deepCopy).orElse(null);
+        } catch (NoSuchFileException e) {
+            return resolve(getRoot(), segments);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Retrieves the value at the given path, deserialized to the given type.
+     *
+     * @param path the path of the value
+     * @param type the type of the value
+     * @param <T>  the type of the value
+     * @return the value at the path, or null if there is none
+     * @throws IllegalArgumentException if the path is malformed
+     * @see #query(String)
+     */
+    public <T> @Nullable T query(String path, Type type) {
+        var value = query(path);
+        return value != null ? getGson().fromJson(value, type) : null;
+    }
+
+    /**
+     * Creates a deep copy of the given json element.
+     * <p>
+     * Since json elements can't reject modifications, {@link #snapshot() snapshots} are such copies as well,
+     * which must not be modified.
+     *
+     * @param root the json element to copy
+     * @return the copy of the json element
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected R copy(R root) {
+        return (R) root.deepCopy();
+    }
+
+    @Override
+    public FileIO<R> reload() {
+        queries.clear();
+        stamp = null;
+        return super.reload();
+    }
+
+    private @Nullable JsonElement scan(List<Object> segments) throws IOException {
+        var input = new InputStreamReader(new BufferedInputStream(Files.newInputStream(getFile())), getCharset());
+        try (var reader = new JsonReader(input)) {
+            for (var segment : segments) {
+                if (segment instanceof String name) {
+                    if (reader.peek() != JsonToken.BEGIN_OBJECT) return null;
+                    reader.beginObject();
+                    while (true) {
+                        if (!reader.hasNext()) return null;
+                        if (reader.nextName().equals(name)) break;
+                        reader.skipValue();
+                    }
+                } else if (segment instanceof Integer index) {
+                    if (reader.peek() != JsonToken.BEGIN_ARRAY) return null;
+                    reader.beginArray();
+                    for (var i = 0; i < index; i++) {
+                        if (!reader.hasNext()) return null;
+                        reader.skipValue();
+                    }
+                    if (!reader.hasNext()) return null;
+                }
+            }
+            return JsonParser.parseReader(reader);
+        }
+    }
+
+    private static @Nullable JsonElement resolve(JsonElement root, List<Object> segments) {
+        JsonElement element = root;
+        for (var segment : segments) {
+            if (segment instanceof String name && element.isJsonObject()) {
+                element = element.getAsJsonObject().get(name);
+            } else if (segment instanceof Integer index && element.isJsonArray()) {
+                var array = element.getAsJsonArray();
+                element = index < array.size() ? array.get(index) : null;
+            } else return null;
+            if (element == null) return null;
+        }
+        return element.deepCopy();
+    }
+
+    private static List<Object> parse(String path) {
+        var segments = new ArrayList<Object>();
+        var i = 0;
+        while (i < path.length()) {
+            if (path.charAt(i) == '[') {
+                var end = path.indexOf(']', i);
+                if (end == -1) throw new IllegalArgumentException("Unclosed bracket in path: " + path);
+                try {
+                    segments.add(Integer.parseUnsignedInt(path, i + 1, end, 10));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Malformed index in path: " + path, e);
+                }
+                i = end + 1;
+                if (i < path.length() && path.charAt(i) != '.' && path.charAt(i) != '[')
+                    throw new IllegalArgumentException("Missing separator after index in path: " + path);
+            } else {
+                var end = i;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') end++;
+                if (end == i) throw new IllegalArgumentException("Empty member name in path: " + path);
+                segments.add(path.substring(i, end));
+                i = end;
+            }
+            if (i < path.length() && path.charAt(i) == '.' && ++i == path.length())
+                throw new IllegalArgumentException("Empty member name in path: " + path);
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,396 @@
+package core.file.formats;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import core.file.FileIO;
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileAttribute;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A file in the JSON Lines format, where every line holds one JSON value.
+ * <p>
+ * The first line holds a snapshot of the root object, every following line holds an entry,
+ * such as a record or mutation, that is applied to the root using the reducer when the file is loaded.
+ * {@link #append(Object) Appending} an entry writes a single line through a buffered channel
+ * instead of rewriting the whole file.
+ * <p>
+ * Saving the file compacts it into a new snapshot of the root without any entries,
+ * which happens in the background once the {@link #getCompactionThreshold() compaction threshold} is reached.
+ * Changing the root using {@link #setRoot(Object)} should be followed by a save before appending more entries.
+ *
+ * @param <R> the type of the root object
+ * @param <E> the type of the entries
+ */
+public class JsonLinesFile<R, E> extends FileIO<R> implements AutoCloseable {
+    private static final System.Logger LOGGER = System.getLogger(JsonLinesFile.class.getName());
+
+    /**
+     * The default root object associated with this JsonLinesFile.
+     */
+    protected final R defaultRoot;
+    private final BiFunction<R, E, R> reducer;
+    private final Type entryType;
+    private final Type type;
+    private final Gson gson;
+
+    private final AtomicInteger appended = new AtomicInteger();
+    private final Object appendLock = new Object();
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private @Nullable Compaction compaction;
+    private @Nullable FileChannel channel;
+    private @Nullable Writer appender;
+
+    private volatile int compactionThreshold = 1000;
+
+    /**
+     * Construct a new JsonLinesFile providing a file, default root object, root type, entry type, reducer,
+     * and gson instance
+     *
+     * @param file      the file to read from and write to
+     * @param root      the default root object
+     * @param type      the root type
+     * @param entryType the entry type
+     * @param reducer   the function applying an entry to the root, returning the resulting root
+     * @param gson      the gson instance
+     */
+    public JsonLinesFile(Path file, R root, Type type, Type entryType, BiFunction<R, E, R> reducer, Gson gson) {
+        super(file, root);
+        this.defaultRoot = root;
+        this.type = type;
+        this.entryType = entryType;
+        this.reducer = reducer;
+        this.gson = gson;
+    }
+
+    /**
+     * Construct a new JsonLinesFile providing a file, default root object, root type-token, entry type-token,
+     * reducer, and gson instance
+     *
+     * @param file       the file to read from and write to
+     * @param root       the default root object
+     * @param token      the root type-token
+     * @param entryToken the entry type-token
+     * @param reducer    the function applying an entry to the root, returning the resulting root
+     * @param gson       the gson instance
+     */
+    public JsonLinesFile(Path file, R root, TypeToken<R> token, TypeToken<E> entryToken, BiFunction<R, E, R> reducer, Gson gson) {
+        this(file, root, token.getType(), entryToken.getType(), reducer, gson);
+    }
+
+    /**
+     * Construct a new JsonLinesFile providing a file, default root object, root type, entry type, and reducer
+     *
+     * @param file      the file to read from and write to
+     * @param root      the default root object
+     * @param type      the root type
+     * @param entryType the entry type
+     * @param reducer   the function applying an entry to the root, returning the resulting root
+     */
+    public JsonLinesFile(Path file, R root, Type type, Type entryType, BiFunction<R, E, R> reducer) {
+        this(file, root, type, entryType, reducer, new GsonBuilder()
+                .disableHtmlEscaping()
+                .serializeNulls()
+                .create());
+    }
+
+    /**
+     * Construct a new JsonLinesFile providing a file, default root object, root type-token, entry type-token,
+     * and reducer
+     *
+     * @param file       the file to read from and write to
+     * @param root       the default root object
+     * @param token      the root type-token
+     * @param entryToken the entry type-token
+     * @param reducer    the function applying an entry to the root, returning the resulting root
+     */
+    public JsonLinesFile(Path file, R root, TypeToken<R> token, TypeToken<E> entryToken, BiFunction<R, E, R> reducer) {
+        this(file, root, token.getType(), entryToken.getType(), reducer);
+    }
+
+    @Override
+    protected R load() {
+        if (!Files.isReadable(getFile())) return getRoot();
+        try (var reader = new BufferedReader(newReader())) {
+            var snapshot = reader.readLine();
+            R root = snapshot != null ? getGson().<@Nullable R>fromJson(snapshot, getType()) : null;
+            if (root == null) root = defaultRoot;
+            var replayed = 0;
+            for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isBlank()) continue;
+                try {
+                    E entry = getGson().<@Nullable E>fromJson(line, getEntryType());
+                    if (entry == null) continue;
+                    root = reducer.apply(root, entry);
+                    replayed++;
+                } catch (JsonParseException e) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Skipping malformed line in " + getFile() + ": " + e.getMessage());
+                }
+            }
+            appended.set(replayed);
+            return root;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    protected void write(R root, Writer writer) throws IOException {
+        String line;
+        synchronized (appendLock) {
+            var compaction = this.compaction;
+            line = compaction != null && compaction.thread() == Thread.currentThread()
+                    ? compaction.snapshot() : toLine(root, getType());
+        }
+        writer.write(line);
+    }
+
+    @Override
+    protected R copy(R root) {
+        return getGson().fromJson(getGson().toJsonTree(root, getType()), getType());
+    }
+
+    /**
+     * Appends the given entry to the file and applies it to the root.
+     * <p>
+     * The line is buffered until it is {@link #flush() flushed}, the buffer is full, or the file is saved.
+     * While the file is compacted, lines are kept in memory and appended to the compacted file.
+     * Once the amount of entries reaches the compaction threshold, the file is saved asynchronously.
+     *
+     * @param entry the entry to append
+     * @return the own instance
+     */
+    public JsonLinesFile<R, E> append(E entry) {
+        var line = toLine(entry, getEntryType());
+        getRoot();
+        synchronized (appendLock) {
+            try {
+                if (compaction != null) compaction.backlog().add(line);
+                else openAppender().write(line);
+                setRoot(reducer.apply(getRoot(), entry));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        if (appended.incrementAndGet() >= compactionThreshold) saveAsync();
+        return this;
+    }
+
+    /**
+     * Writes all buffered entries to the file and forces them to the storage device
+     * as required by the {@link #getDurability() durability}.
+     * <p>
+     * If the file is being compacted, this waits for the compaction to finish first.
+     *
+     * @return the own instance
+     */
+    public JsonLinesFile<R, E> flush() {
+        synchronized (appendLock) {
+            awaitCompaction();
+            if (appender == null || channel == null) return this;
+            try {
+                appender.flush();
+                if (getDurability().isFlushing()) channel.force(getDurability().isSyncingMetadata());
+                return this;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Flushes all buffered entries and releases the channel used to append them.
+     * <p>
+     * The channel is opened again on the next append.
+     */
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (appender == null) return;
+            try {
+                flush();
+                appender.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                appender = null;
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Compacts the file into a single snapshot of the current root.
+     * <p>
+     * Only taking the snapshot blocks appending threads,
+     * entries appended while the file is rewritten are appended to the compacted file afterward.
+     *
+     * @param attributes the file attributes to apply when the file is created
+     * @return the own instance
+     */
+    @Override
+    public FileIO<R> save(FileAttribute<?>... attributes) {
+        getRoot();
+        compactionLock.lock();
+        try {
+            int compacted;
+            synchronized (appendLock) {
+                close();
+                compaction = new Compaction(Thread.currentThread(), toLine(getRoot(), getType()), new ArrayList<>());
+                compacted = appended.getAndSet(0);
+            }
+            var failed = true;
+            try {
+                super.save(attributes);
+                failed = false;
+                return this;
+            } finally {
+                synchronized (appendLock) {
+                    var backlog = Objects.requireNonNull(compaction).backlog();
+                    compaction = null;
+                    appendLock.notifyAll();
+                    // entries of a failed compaction are still in the previous file
+                    if (failed) appended.addAndGet(compacted);
+                    try {
+                        for (var line : backlog) openAppender().write(line);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    @Override
+    public FileIO<R> reload() {
+        flush();
+        return super.reload();
+    }
+
+    @Override
+    public boolean delete() throws IOException {
+        synchronized (appendLock) {
+            close();
+            appended.set(0);
+            return super.delete();
+        }
+    }
+
+    /**
+     * Sets the amount of appended entries after which the file is compacted in the background.
+     *
+     * @param compactionThreshold the compaction threshold
+     * @return the own instance
+     * @throws IllegalArgumentException if the compaction threshold is not positive
+     */
+    public JsonLinesFile<R, E> setCompactionThreshold(int compactionThreshold) {
+        if (compactionThreshold <= 0)
+            throw new IllegalArgumentException("Compaction threshold must be positive: " + compactionThreshold);
+        this.compactionThreshold = compactionThreshold;
+        return this;
+    }
+
+    /**
+     * Retrieves the amount of appended entries after which the file is compacted in the background.
+     *
+     * @return the compaction threshold, 1000 by default
+     */
+    public int getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    /**
+     * Retrieves the Gson instance associated with this class.
+     *
+     * @return the Gson instance used for JSON serialization and deserialization
+     */
+    public Gson getGson() {
+        return gson;
+    }
+
+    /**
+     * Retrieves the type of the root object stored by this instance.
+     *
+     * @return the root type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the type of the entries stored by this instance.
+     *
+     * @return the entry type
+     */
+    public Type getEntryType() {
+        return entryType;
+    }
+
+    private void awaitCompaction() {
+        var interrupted = false;
+        while (compaction != null && compaction.thread() != Thread.currentThread()) try {
+            appendLock.wait();
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private Writer openAppender() throws IOException {
+        if (appender != null) return appender;
+        if (!Files.isRegularFile(getFile()) || Files.size(getFile()) == 0) super.save();
+        var channel = FileChannel.open(getFile(), READ, WRITE);
+        try {
+            var size = channel.size();
+            channel.position(size);
+            var last = ByteBuffer.allocate(1);
+            // terminate a line torn by a crash, so it doesn't swallow the next entry
+            if (channel.read(last, size - 1) == 1 && last.get(0) != '\n') channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.channel = channel;
+        return appender = Channels.newWriter(channel, getCharset());
+    }
+
+    private String toLine(Object value, Type type) {
+        var line = new StringWriter();
+        getGson().toJson(value, type, new JsonWriter(line));
+        return line.append('\n').toString();
+    }
+
+    /**
+     * A running compaction.
+     *
+     * @param thread   the thread compacting the file
+     * @param snapshot the snapshot line of the root at the time the compaction started
+     * @param backlog  the lines appended since, which are written once the compaction finished
+     */
+    private record Compaction(Thread thread, String snapshot, List<String> backlog) {
+    }
+}
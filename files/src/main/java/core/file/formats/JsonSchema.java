@@ -0,0 +1,179 @@
+package core.file.formats;
+
+import com.google.gson.FieldNamingStrategy;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import core.file.Validatable.Scope;
+import core.file.ValidationReport;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The structure of a default JSON tree, compiled once to validate other trees against it.
+ * <p>
+ * The members of the root object are always validated, all other values are accepted as they are.
+ * Compiled for deep validation, members declared with a known type are validated as well,
+ * objects member by member and arrays element by element against the first element of the default array.
+ * Maps, JSON elements, values of unknown type, and nested objects without any members by default
+ * accept any content, since their keys are data rather than structure.
+ *
+ * @param members  the members of the default object, or null if the default value is not an object
+ * @param elements the schema of the elements of the default array, or null if there is none
+ */
+record JsonSchema(@Nullable Map<String, Member> members, @Nullable JsonSchema elements) {
+    private static final JsonSchema ANY = new JsonSchema(null, null);
+
+    /**
+     * Compiles the schema of the given default tree.
+     *
+     * @param tree   the default tree
+     * @param type   the type the default tree was serialized from
+     * @param naming the strategy translating field names to member names
+     * @param deep   whether members of a known type are validated as well, rather than only the root members
+     * @return the compiled schema
+     */
+    static JsonSchema compile(JsonElement tree, Type type, FieldNamingStrategy naming, boolean deep) {
+        if (!(tree instanceof JsonObject object)) return ANY;
+        var fields = deep ? fields(TypeToken.get(type).getRawType(), naming) : Map.<String, Type>of();
+        var members = new LinkedHashMap<String, Member>(object.size());
+        object.entrySet().forEach(entry -> {
+            var field = fields.get(entry.getKey());
+            var schema = field != null ? compileNested(entry.getValue(), field, naming) : ANY;
+            members.put(entry.getKey(), new Member(entry.getValue(), schema));
+        });
+        return new JsonSchema(members, null);
+    }
+
+    private static JsonSchema compileNested(JsonElement tree, Type type, FieldNamingStrategy naming) {
+        if (!isStructured(type)) return ANY;
+        if (tree instanceof JsonObject object && !object.isEmpty()) {
+            return compile(object, type, naming, true);
+        } else if (tree instanceof JsonArray array && !array.isEmpty()) {
+            var elements = compileNested(array.get(0), elementType(type), naming);
+            return elements == ANY ? ANY : new JsonSchema(null, elements);
+        }
+        return ANY;
+    }
+
+    private static boolean isStructured(Type type) {
+        var rawType = TypeToken.get(type).getRawType();
+        return rawType != Object.class
+               && !Map.class.isAssignableFrom(rawType)
+               && !JsonElement.class.isAssignableFrom(rawType);
+    }
+
+    private static Map<String, Type> fields(Class<?> type, FieldNamingStrategy naming) {
+        var fields = new HashMap<String, Type>();
+        if (type.getName().startsWith("java.") || JsonElement.class.isAssignableFrom(type)) return fields;
+        for (var current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (var field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) continue;
+                var serializedName = field.getAnnotation(SerializedName.class);
+                var name = serializedName != null ? serializedName.value() : naming.translateName(field);
+                fields.putIfAbsent(name, field.getGenericType());
+            }
+        }
+        return fields;
+    }
+
+    private static Type elementType(Type type) {
+        if (type instanceof GenericArrayType array) return array.getGenericComponentType();
+        if (type instanceof Class<?> array && array.isArray()) return array.getComponentType();
+        if (type instanceof ParameterizedType parameterized
+            && Collection.class.isAssignableFrom(TypeToken.get(parameterized).getRawType())
+            && parameterized.getActualTypeArguments().length == 1)
+            return parameterized.getActualTypeArguments()[0];
+        return Object.class;
+    }
+
+    /**
+     * Validates the given tree in place in a single pass.
+     *
+     * @param tree  the tree to validate
+     * @param scope the validation scope
+     * @return the report of all changes made to the tree
+     */
+    ValidationReport validate(JsonElement tree, Scope scope) {
+        var validation = new Validation(scope);
+        validate(tree, validation);
+        return validation.filtered.isEmpty() && validation.filled.isEmpty() ? ValidationReport.EMPTY
+                : new ValidationReport(validation.filtered, validation.filled);
+    }
+
+    private void validate(JsonElement tree, Validation validation) {
+        if (members != null && tree instanceof JsonObject object) {
+            var iterator = object.entrySet().iterator();
+            var matched = 0;
+            while (iterator.hasNext()) {
+                var entry = iterator.next();
+                var member = members.get(entry.getKey());
+                validation.path.addLast(entry.getKey());
+                if (member != null) {
+                    member.schema().validate(entry.getValue(), validation);
+                    matched++;
+                } else if (validation.scope.isFiltering()) {
+                    validation.filtered.add(validation.path());
+                    iterator.remove();
+                }
+                validation.path.removeLast();
+            }
+            if (validation.scope.isFilling() && matched < members.size()) members.forEach((name, member) -> {
+                if (object.has(name)) return;
+                object.add(name, member.value().deepCopy());
+                validation.path.addLast(name);
+                validation.filled.add(validation.path());
+                validation.path.removeLast();
+            });
+        } else if (elements != null && tree instanceof JsonArray array) {
+            for (var i = 0; i < array.size(); i++) {
+                validation.path.addLast(i);
+                elements.validate(array.get(i), validation);
+                validation.path.removeLast();
+            }
+        }
+    }
+
+    /**
+     * A member of a default object.
+     *
+     * @param value  the default value
+     * @param schema the schema of the default value
+     */
+    record Member(JsonElement value, JsonSchema schema) {
+    }
+
+    private static final class Validation {
+        private final List<String> filtered = new ArrayList<>(0);
+        private final List<String> filled = new ArrayList<>(0);
+        private final Deque<Object> path = new ArrayDeque<>();
+        private final Scope scope;
+
+        private Validation(Scope scope) {
+            this.scope = scope;
+        }
+
+        private String path() {
+            var builder = new StringBuilder();
+            path.forEach(segment -> {
+                if (segment instanceof Integer index) builder.append('[').append(index).append(']');
+                else builder.append(builder.isEmpty() ? "" : ".").append(segment);
+            });
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package core.file.formats;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A compact binary encoding of a JSON tree, stamped with the size and modification time of the JSON file it mirrors.
+ *
+ * @param digest the digest of the JSON file content
+ * @param tree   the JSON tree
+ */
+record JsonSnapshot(byte[] digest, JsonElement tree) {
+    private static final int MAGIC = 0x47534E50;
+    private static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte NUMBER = 5;
+    private static final byte STRING = 6;
+    private static final byte ARRAY = 7;
+    private static final byte OBJECT = 8;
+
+    /**
+     * Reads the snapshot if it was taken of the JSON file with the given attributes.
+     *
+     * @param file       the snapshot file
+     * @param attributes the current attributes of the JSON file
+     * @return the snapshot, or null if it doesn't match the JSON file
+     * @throws IOException if an I/O error occurs or the snapshot is malformed
+     */
+    static @Nullable JsonSnapshot read(Path file, BasicFileAttributes attributes) throws IOException {
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readByte() != VERSION) return null;
+            if (input.readLong() != attributes.size()) return null;
+            var lastModified = FileTime.from(input.readLong(), TimeUnit.NANOSECONDS);
+            if (!lastModified.equals(attributes.lastModifiedTime())) return null;
+            var digest = new byte[input.readUnsignedByte()];
+            input.readFully(digest);
+            return new JsonSnapshot(digest, readElement(input));
+        }
+    }
+
+    /**
+     * Determines whether the snapshot was taken of the JSON file with the given attributes.
+     *
+     * @param file       the snapshot file
+     * @param attributes the current attributes of the JSON file
+     * @return whether the snapshot matches the JSON file
+     */
+    static boolean isCurrent(Path file, BasicFileAttributes attributes) {
+        if (!Files.isRegularFile(file)) return false;
+        try (var input = new DataInputStream(Files.newInputStream(file))) {
+            return input.readInt() == MAGIC && input.readByte() == VERSION
+                    && input.readLong() == attributes.size()
+                    && FileTime.from(input.readLong(), TimeUnit.NANOSECONDS).equals(attributes.lastModifiedTime());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes this snapshot stamped with the given attributes of the JSON file.
+     * <p>
+     * The snapshot is written to a temporary file first, which then atomically replaces the snapshot file,
+     * so readers never observe a partially written snapshot.
+     *
+     * @param file       the snapshot file
+     * @param attributes the attributes of the JSON file
+     * @throws IOException if an I/O error occurs
+     */
+    void write(Path file, BasicFileAttributes attributes) throws IOException {
+        var temp = file.resolveSibling("." + file.getFileName() + "."
+                + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+        try {
+            try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp, CREATE_NEW, WRITE)))) {
+                output.writeInt(MAGIC);
+                output.writeByte(VERSION);
+                output.writeLong(attributes.size());
+                output.writeLong(attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS));
+                output.writeByte(digest.length);
+                output.write(digest);
+                writeElement(output, tree);
+            }
+            try {
+                Files.move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeElement(DataOutputStream output, JsonElement element) throws IOException {
+        if (element instanceof JsonObject object) {
+            output.writeByte(OBJECT);
+            writeVarInt(output, object.size());
+            for (var entry : object.entrySet()) {
+                writeString(output, entry.getKey());
+                writeElement(output, entry.getValue());
+            }
+        } else if (element instanceof JsonArray array) {
+            output.writeByte(ARRAY);
+            writeVarInt(output, array.size());
+            for (var value : array) writeElement(output, value);
+        } else if (element instanceof JsonPrimitive primitive) {
+            writePrimitive(output, primitive);
+        } else {
+            output.writeByte(NULL);
+        }
+    }
+
+    private static void writePrimitive(DataOutputStream output, JsonPrimitive primitive) throws IOException {
+        if (primitive.isBoolean()) {
+            output.writeByte(primitive.getAsBoolean() ? TRUE : FALSE);
+        } else if (primitive.isString()) {
+            output.writeByte(STRING);
+            writeString(output, primitive.getAsString());
+        } else if (primitive.getAsNumber() instanceof Double number) {
+            output.writeByte(DOUBLE);
+            output.writeDouble(number);
+        } else if (primitive.getAsNumber() instanceof Integer || primitive.getAsNumber() instanceof Long
+                   || primitive.getAsNumber() instanceof Short || primitive.getAsNumber() instanceof Byte) {
+            output.writeByte(LONG);
+            writeVarLong(output, primitive.getAsLong());
+        } else {
+            var text = primitive.getAsNumber().toString();
+            try {
+                var value = Long.parseLong(text);
+                output.writeByte(LONG);
+                writeVarLong(output, value);
+            } catch (NumberFormatException e) {
+                output.writeByte(NUMBER);
+                writeString(output, text);
+            }
+        }
+    }
+
+    private static JsonElement readElement(DataInputStream input) throws IOException {
+        var tag = input.readByte();
+        return switch (tag) {
+            case NULL -> JsonNull.INSTANCE;
+            case TRUE -> new JsonPrimitive(true);
+            case FALSE -> new JsonPrimitive(false);
+            case LONG -> new JsonPrimitive(readVarLong(input));
+            case DOUBLE -> new JsonPrimitive(input.readDouble());
+            case NUMBER -> new JsonPrimitive(new BigDecimal(readString(input)));
+            case STRING -> new JsonPrimitive(readString(input));
+            case ARRAY -> {
+                var size = readVarInt(input);
+                var array = new JsonArray(size);
+                for (var i = 0; i < size; i++) array.add(readElement(input));
+                yield array;
+            }
+            case OBJECT -> {
+                var size = readVarInt(input);
+                var object = new JsonObject();
+                for (var i = 0; i < size; i++) object.add(readString(input), readElement(input));
+                yield object;
+            }
+            default -> throw new IOException("Unknown tag " + tag);
+        };
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(output, bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        var bytes = new byte[readVarInt(input)];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream output, int value) throws IOException {
+        writeVarLong(output, value);
+    }
+
+    private static int readVarInt(DataInputStream input) throws IOException {
+        return Math.toIntExact(readVarLong(input));
+    }
+
+    private static void writeVarLong(DataOutputStream output, long value) throws IOException {
+        var zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            output.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        output.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(DataInputStream input) throws IOException {
+        var zigzag = 0L;
+        for (var shift = 0; shift < 64; shift += 7) {
+            var b = input.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        throw new IOException("Malformed variable-length number");
+    }
+}
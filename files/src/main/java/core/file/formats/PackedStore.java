@@ -0,0 +1,540 @@
+package core.file.formats;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.jspecify.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A store packing any number of keyed records into a single file,
+ * replacing thousands of tiny files with one data file.
+ * <p>
+ * Records are serialized using Gson, the same way {@link GsonFile} does.
+ * Each update appends a new slot to the end of the file before the previous slot of the record is discarded,
+ * so a record is never lost, even if the process dies mid-write.
+ * The index of all slots is kept in memory and rebuilt from the file when it is opened.
+ * Reads go through a memory mapping of the file.
+ * Once the space taken by outdated slots exceeds the {@link #getCompactionRatio() compaction ratio},
+ * the file is compacted in the background, which only blocks other threads while the compacted file is swapped in.
+ *
+ * @param <R> the type of the records
+ */
+public class PackedStore<R> implements AutoCloseable {
+    private static final int MAGIC = 0x50434B53;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int REMOVED = Integer.MIN_VALUE;
+    private static final long MINIMUM_GARBAGE = 64 * 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final Map<String, Slot> index = new HashMap<>();
+    private final Path file;
+    private final Type type;
+    private final Gson gson;
+
+    private volatile double compactionRatio = 0.5;
+    private @Nullable CompletableFuture<Void> compaction;
+    private MappedByteBuffer mapping;
+    private FileChannel channel;
+    private long garbage;
+    private long size;
+
+    /**
+     * Construct a new PackedStore providing a file, record type, and gson instance
+     * and open the file, creating it if it doesn't exist
+     *
+     * @param file the file to store the records in
+     * @param type the record type
+     * @param gson the gson instance
+     */
+    public PackedStore(Path file, Type type, Gson gson) {
+        this.file = file;
+        this.type = type;
+        this.gson = gson;
+        try {
+            var parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            this.channel = FileChannel.open(file, READ, WRITE, CREATE);
+            if (channel.size() == 0) writeHeader(channel);
+            this.size = channel.size();
+            this.mapping = map();
+            scan();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Construct a new PackedStore providing a file, record type-token, and gson instance
+     * and open the file, creating it if it doesn't exist
+     *
+     * @param file  the file to store the records in
+     * @param token the record type-token
+     * @param gson  the gson instance
+     */
+    public PackedStore(Path file, TypeToken<R> token, Gson gson) {
+        this(file, token.getType(), gson);
+    }
+
+    /**
+     * Construct a new PackedStore providing a file and record type
+     * and open the file, creating it if it doesn't exist
+     *
+     * @param file the file to store the records in
+     * @param type the record type
+     */
+    public PackedStore(Path file, Type type) {
+        this(file, type, new GsonBuilder()
+                .disableHtmlEscaping()
+                .serializeNulls()
+                .create());
+    }
+
+    /**
+     * Construct a new PackedStore providing a file and record type-token
+     * and open the file, creating it if it doesn't exist
+     *
+     * @param file  the file to store the records in
+     * @param token the record type-token
+     */
+    public PackedStore(Path file, TypeToken<R> token) {
+        this(file, token.getType());
+    }
+
+    /**
+     * Retrieves the record associated with the given key.
+     *
+     * @param key the key
+     * @return the record, or null if there is none
+     */
+    public @Nullable R get(String key) {
+        lock.readLock().lock();
+        try {
+            var slot = index.get(key);
+            if (slot == null) return null;
+            var payload = StandardCharsets.UTF_8.decode(read(slot)).toString();
+            return gson.<@Nullable R>fromJson(payload, type);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Associates the given record with the given key.
+     *
+     * @param key    the key
+     * @param record the record
+     * @return the own instance
+     */
+    public PackedStore<R> put(String key, R record) {
+        var payload = gson.toJson(record, type).getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            var slot = index.put(key, append(key, payload));
+            if (slot != null) discard(slot);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded();
+        return this;
+    }
+
+    /**
+     * Removes the record associated with the given key.
+     *
+     * @param key the key
+     * @return whether a record was removed
+     */
+    public boolean remove(String key) {
+        lock.writeLock().lock();
+        try {
+            var slot = index.remove(key);
+            if (slot == null) return false;
+            discard(slot);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded();
+        return true;
+    }
+
+    /**
+     * Determines whether a record is associated with the given key.
+     *
+     * @param key the key
+     * @return whether a record exists
+     */
+    public boolean contains(String key) {
+        lock.readLock().lock();
+        try {
+            return index.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves all keys with an associated record.
+     *
+     * @return a snapshot of all keys
+     */
+    public Set<String> keys() {
+        lock.readLock().lock();
+        try {
+            return Set.copyOf(index.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the amount of records in this store.
+     *
+     * @return the amount of records
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the file containing only the current records, reclaiming the space of outdated slots.
+     * <p>
+     * The records are copied while the store stays fully usable.
+     * Only the records written in the meantime are copied while reads and writes wait,
+     * right before the rewritten file atomically replaces the current one, which stays in use if the compaction fails.
+     *
+     * @return the own instance
+     */
+    public PackedStore<R> compact() {
+        compactionLock.lock();
+        try {
+            Map<String, Slot> slots;
+            MappedByteBuffer source;
+            FileChannel sourceChannel;
+            lock.readLock().lock();
+            try {
+                slots = new HashMap<>(index);
+                source = mapping;
+                sourceChannel = channel;
+            } finally {
+                lock.readLock().unlock();
+            }
+            var temp = file.resolveSibling(file.getFileName() + ".compact");
+            var output = FileChannel.open(temp, READ, WRITE, CREATE, TRUNCATE_EXISTING);
+            try {
+                var compacted = new HashMap<String, Slot>(slots.size());
+                var position = writeHeader(output);
+                for (var entry : slots.entrySet()) {
+                    var slot = writeSlot(output, position, entry.getKey(), read(entry.getValue(), source, sourceChannel));
+                    compacted.put(entry.getKey(), slot);
+                    position = slot.end();
+                }
+                output.force(true);
+                lock.writeLock().lock();
+                try {
+                    // catch up with the records written while copying
+                    var current = new HashMap<String, Slot>(index.size());
+                    for (var entry : index.entrySet()) {
+                        var slot = entry.getValue().equals(slots.get(entry.getKey())) ? compacted.get(entry.getKey())
+                                : writeSlot(output, position, entry.getKey(), read(entry.getValue()));
+                        current.put(entry.getKey(), slot);
+                        position = Math.max(position, slot.end());
+                    }
+                    var outdated = 0L;
+                    for (var entry : compacted.entrySet()) {
+                        if (entry.getValue().equals(current.get(entry.getKey()))) continue;
+                        markRemoved(output, entry.getValue());
+                        outdated += entry.getValue().end() - entry.getValue().offset();
+                    }
+                    output.force(true);
+                    var compactedMapping = output.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(position, Integer.MAX_VALUE));
+                    Files.move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+                    syncDirectory(file.toAbsolutePath().getParent());
+                    var previous = channel;
+                    channel = output;
+                    size = position;
+                    mapping = compactedMapping;
+                    index.clear();
+                    index.putAll(current);
+                    garbage = outdated;
+                    previous.close();
+                    return this;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } catch (IOException | RuntimeException e) {
+                if (output != channel) {
+                    output.close();
+                    Files.deleteIfExists(temp);
+                }
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * Forces all written records to the storage device.
+     *
+     * @return the own instance
+     */
+    public PackedStore<R> flush() {
+        lock.readLock().lock();
+        try {
+            channel.force(false);
+            return this;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Waits for a running compaction, forces all written records to the storage device and closes the file.
+     */
+    @Override
+    public void close() {
+        CompletableFuture<Void> compaction;
+        synchronized (this) {
+            compaction = this.compaction;
+        }
+        if (compaction != null) compaction.join();
+        lock.writeLock().lock();
+        try {
+            channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the share of the file that may be taken by outdated slots before the file is compacted in the background.
+     *
+     * @param compactionRatio the compaction ratio between 0 and 1
+     * @return the own instance
+     */
+    public PackedStore<R> setCompactionRatio(double compactionRatio) {
+        this.compactionRatio = compactionRatio;
+        return this;
+    }
+
+    /**
+     * Retrieves the share of the file that may be taken by outdated slots before the file is compacted in the background.
+     *
+     * @return the compaction ratio, 0.5 by default
+     */
+    public double getCompactionRatio() {
+        return compactionRatio;
+    }
+
+    /**
+     * Retrieves the file the records are stored in.
+     *
+     * @return the file of this store
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    private void compactIfNeeded() {
+        lock.readLock().lock();
+        try {
+            if (garbage < MINIMUM_GARBAGE || garbage < size * compactionRatio) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        synchronized (this) {
+            if (compaction != null && !compaction.isDone()) return;
+            compaction = CompletableFuture.runAsync(this::compact, runnable ->
+                    Thread.ofVirtual().name("PackedStore-compaction").start(runnable));
+        }
+    }
+
+    private void scan() throws IOException {
+        var header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+            throw new IOException("Not a packed store: " + file);
+        var position = (long) HEADER_SIZE;
+        var end = channel.size();
+        while (position < end) {
+            try {
+                var keyLength = readInt(position);
+                if (keyLength < 0 || position + keyLength > end) break;
+                var key = new byte[keyLength];
+                readFully(ByteBuffer.wrap(key), position + Integer.BYTES);
+                var fields = ByteBuffer.allocate(Integer.BYTES * 2);
+                readFully(fields, position + Integer.BYTES + keyLength);
+                var slot = new Slot(position, keyLength, fields.getInt(0) & ~REMOVED);
+                if (slot.end() > end) break;
+                position = slot.end();
+                var name = new String(key, StandardCharsets.UTF_8);
+                var payload = (fields.getInt(0) & REMOVED) != 0 ? null : read(slot);
+                if (payload == null || checksum(payload) != fields.getInt(4)) {
+                    garbage += slot.end() - slot.offset();
+                    continue;
+                }
+                var previous = index.put(name, slot);
+                if (previous != null) garbage += previous.end() - previous.offset();
+            } catch (EOFException | IllegalArgumentException e) {
+                break;
+            }
+        }
+        if (position == end) return;
+        channel.truncate(position);
+        size = position;
+        mapping = map();
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (var channel = FileChannel.open(directory, READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // not every platform supports opening or forcing directories
+        }
+    }
+
+    private MappedByteBuffer map() throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+    }
+
+    private Slot append(String key, byte[] payload) throws IOException {
+        var slot = writeSlot(channel, size, key, ByteBuffer.wrap(payload));
+        size = slot.end();
+        if (size - mapping.capacity() > Math.max(1024 * 1024, mapping.capacity() / 4))
+            mapping = map();
+        return slot;
+    }
+
+    private void discard(Slot slot) throws IOException {
+        markRemoved(channel, slot);
+        garbage += slot.end() - slot.offset();
+    }
+
+    private static void markRemoved(FileChannel channel, Slot slot) throws IOException {
+        var buffer = ByteBuffer.allocate(Integer.BYTES).putInt(slot.length() | REMOVED).flip();
+        writeFully(channel, buffer, slot.offset() + Integer.BYTES + slot.keyLength());
+    }
+
+    private ByteBuffer read(Slot slot) throws IOException {
+        return read(slot, mapping, channel);
+    }
+
+    private static ByteBuffer read(Slot slot, MappedByteBuffer mapping, FileChannel channel) throws IOException {
+        if (slot.payload() + slot.length() <= mapping.capacity())
+            return mapping.slice((int) slot.payload(), slot.length());
+        var buffer = ByteBuffer.allocate(slot.length());
+        readFully(channel, buffer, slot.payload());
+        return buffer.flip();
+    }
+
+    private int readInt(long position) throws IOException {
+        var buffer = ByteBuffer.allocate(Integer.BYTES);
+        readFully(buffer, position);
+        return buffer.getInt(0);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        readFully(channel, buffer, position);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) throw new EOFException();
+        }
+    }
+
+    private static long writeHeader(FileChannel channel) throws IOException {
+        writeFully(channel, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip(), 0);
+        return HEADER_SIZE;
+    }
+
+    private static Slot writeSlot(FileChannel channel, long position, String key, ByteBuffer payload) throws IOException {
+        var name = key.getBytes(StandardCharsets.UTF_8);
+        var length = payload.remaining();
+        var slot = new Slot(position, name.length, length);
+        var buffer = ByteBuffer.allocate((int) (slot.end() - position))
+                .putInt(name.length).put(name)
+                .putInt(length).putInt(checksum(payload.duplicate()))
+                .put(payload);
+        writeFully(channel, buffer.clear(), position);
+        return slot;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer, position + buffer.position());
+    }
+
+    private static int checksum(ByteBuffer payload) {
+        var checksum = new CRC32C();
+        checksum.update(payload.duplicate());
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * A slot holding a single record.
+     * <p>
+     * Outdated slots are marked by setting the {@link #REMOVED} bit of the stored length.
+     *
+     * @param offset    the position of the slot in the file
+     * @param keyLength the length of the encoded key
+     * @param length    the length of the payload
+     */
+    private record Slot(long offset, int keyLength, int length) {
+        private Slot {
+            if (keyLength < 0 || length < 0)
+                throw new IllegalArgumentException("Malformed slot at " + offset);
+        }
+
+        private long payload() {
+            return offset + Integer.BYTES + keyLength + Integer.BYTES * 2;
+        }
+
+        private long end() {
+            return payload() + length;
+        }
+    }
+}
@@ -1,37 +1,73 @@
 package core.file.formats;
 
 import core.file.FileIO;
+import core.file.FileIOListener;
 import core.file.Validatable;
+import org.jspecify.annotations.Nullable;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.FilterWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Serial;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.attribute.FileAttribute;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
-
-import static java.nio.file.StandardOpenOption.CREATE;
-import static java.nio.file.StandardOpenOption.READ;
-import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
-import static java.nio.file.StandardOpenOption.WRITE;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 /**
  * Represents a properties file and provides methods for reading, writing, and validating the properties file.
  * This class extends {@link FileIO} to handle file input and output operations
  * with properties files and implements {@link Validatable} to validate the properties.
+ * <p>
+ * Typed properties, such as {@link #intProperty(String, int)}, parse their value once
+ * whenever the properties are loaded, reloaded, set, or validated,
+ * so reading them is a plain array lookup without any parsing or boxing.
+ * Changes made directly to the {@link #getRoot() root} are only picked up by typed properties
+ * once it is set again using {@link #setRoot(Object)}.
  */
 public class PropertiesFile extends FileIO<Properties> implements Validatable<Properties> {
+    private static final System.Logger LOGGER = System.getLogger(PropertiesFile.class.getName());
+    private static final Pattern DURATION = Pattern.compile("(\\d+)\\s*(ms|s|m|h|d)?", Pattern.CASE_INSENSITIVE);
+
     /**
      * The default set of properties to be used as the base configuration.
      * These properties will be referenced when no specific properties are provided or found.
      */
     protected final Properties defaultRoot;
 
+    private final Object snapshotLock = new Object();
+    private final List<Binding> bindings = new ArrayList<>();
+    private int longSlots, doubleSlots, objectSlots;
+    private Properties source;
+
+    private volatile PropertiesLayout layout = PropertiesLayout.empty();
+    private volatile boolean preservingLayout;
+
+    private volatile Snapshot snapshot = new Snapshot(new long[0], new double[0], new Object[0]);
+
     /**
      * Construct a new PropertiesFile providing a file, charset, and default root object
      *
@@ -42,6 +78,7 @@ public class PropertiesFile extends FileIO<Properties> implements Validatable<Pr
     public PropertiesFile(Path file, Charset charset, Properties root) {
         super(file, charset, root);
         defaultRoot = root;
+        source = root;
     }
 
     /**
@@ -76,7 +113,8 @@ public class PropertiesFile extends FileIO<Properties> implements Validatable<Pr
     @Override
     protected Properties load() {
         if (!Files.isRegularFile(getFile())) return (Properties) getRoot().clone();
-        try (var reader = new InputStreamReader(Files.newInputStream(getFile(), READ), getCharset());
+        if (preservingLayout) return loadLayout();
+        try (var reader = newReader();
              var buffer = new BufferedReader(reader)) {
             var properties = new Properties();
             properties.load(buffer);
@@ -86,31 +124,86 @@ public class PropertiesFile extends FileIO<Properties> implements Validatable<Pr
         }
     }
 
-    @Override
-    public FileIO<Properties> save(FileAttribute<?>... attributes) {
-        try {
-            var root = getRoot();
-            Files.createDirectories(getFile().toAbsolutePath().getParent());
-            try (var writer = new BufferedWriter(new OutputStreamWriter(
-                    Files.newOutputStream(getFile(), WRITE, CREATE, TRUNCATE_EXISTING),
-                    getCharset()
-            ))) {
-                root.store(writer, null);
-                return this;
-            }
+    private Properties loadLayout() {
+        try (var reader = newReader()) {
+            return readLayout(reader);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private Properties readLayout(Reader reader) throws IOException {
+        var text = new StringWriter();
+        reader.transferTo(text);
+        var properties = new Properties();
+        properties.load(new StringReader(text.toString()));
+        layout = PropertiesLayout.parse(text.toString(), properties);
+        return properties;
+    }
+
+    @Override
+    protected void write(Properties root, Writer writer) throws IOException {
+        if (preservingLayout) layout.write(root, writer);
+        else root.store(new TimestampFilter(writer), null);
+    }
+
+    @Override
+    protected void onSaved(ByteBuffer content) throws IOException {
+        if (!preservingLayout) return;
+        try (var reader = newReader(content)) {
+            readLayout(reader);
+        }
+    }
+
+    @Override
+    protected Properties copy(Properties root) {
+        var copy = new Properties();
+        copy.putAll(root);
+        return copy;
+    }
+
+    /**
+     * Creates a snapshot of the given properties that rejects all modifications.
+     *
+     * @param root the properties to take a snapshot of
+     * @return the snapshot
+     */
+    @Override
+    protected Properties freeze(Properties root) {
+        return new FrozenProperties(root);
+    }
+
+    @Override
+    protected Set<String> diff(Properties previous, Properties current) {
+        var changes = new HashSet<String>();
+        previous.forEach((key, value) -> {
+            if (!value.equals(current.get(key))) changes.add(String.valueOf(key));
+        });
+        current.forEach((key, value) -> {
+            if (!previous.containsKey(key)) changes.add(String.valueOf(key));
+        });
+        return changes;
+    }
+
+    @Override
+    protected void onRootChanged(Properties root) {
+        synchronized (snapshotLock) {
+            source = root;
+            snapshot = parse(root);
+        }
+    }
+
     @Override
     public PropertiesFile validate(Scope scope) {
-        var root = getRoot();
-        if (root == defaultRoot) return this;
-        if (scope.isFiltering()) root.entrySet().removeIf(entry ->
-                !defaultRoot.containsKey(entry.getKey()));
-        if (scope.isFilling()) merge(defaultRoot);
-        return this;
+        return measure(FileIOListener.Operation.VALIDATE, () -> {
+            var root = getRoot();
+            if (root == defaultRoot) return this;
+            if (scope.isFiltering()) root.entrySet().removeIf(entry ->
+                    !defaultRoot.containsKey(entry.getKey()));
+            if (scope.isFilling()) merge(defaultRoot);
+            onRootChanged(root);
+            return this;
+        });
     }
 
     public PropertiesFile merge(Properties properties) {
@@ -119,6 +212,471 @@ public class PropertiesFile extends FileIO<Properties> implements Validatable<Pr
             if (root.containsKey(key)) return;
             root.put(key, value);
         });
+        onRootChanged(root);
         return this;
     }
+
+    /**
+     * Sets whether the layout of the file is preserved when it is saved.
+     * <p>
+     * Instead of rewriting the whole file, the original lines, comments, and ordering are kept,
+     * only the lines of changed properties are replaced and new properties are appended,
+     * so saving unchanged properties doesn't write the file at all.
+     * This has to be set before the file is loaded.
+     *
+     * @param preservingLayout whether the layout is preserved
+     * @return the own instance
+     */
+    public PropertiesFile setPreservingLayout(boolean preservingLayout) {
+        this.preservingLayout = preservingLayout;
+        return this;
+    }
+
+    /**
+     * Determines whether the layout of the file is preserved when it is saved.
+     *
+     * @return whether the layout is preserved
+     */
+    public boolean isPreservingLayout() {
+        return preservingLayout;
+    }
+
+    /**
+     * Creates a typed property reading an int value.
+     *
+     * @param key          the key of the property
+     * @param defaultValue the value used if the property is missing or invalid
+     * @return the typed property
+     */
+    public IntProperty intProperty(String key, int defaultValue) {
+        return bind(() -> new IntProperty(this, key, longSlots++), property -> (properties, snapshot) ->
+                snapshot.longs()[property.slot] = parse(properties, key, Integer::parseInt, defaultValue));
+    }
+
+    /**
+     * Creates a typed property reading a long value.
+     *
+     * @param key          the key of the property
+     * @param defaultValue the value used if the property is missing or invalid
+     * @return the typed property
+     */
+    public LongProperty longProperty(String key, long defaultValue) {
+        return bind(() -> new LongProperty(this, key, longSlots++), property -> (properties, snapshot) ->
+                snapshot.longs()[property.slot] = parse(properties, key, Long::parseLong, defaultValue));
+    }
+
+    /**
+     * Creates a typed property reading a double value.
+     *
+     * @param key          the key of the property
+     * @param defaultValue the value used if the property is missing or invalid
+     * @return the typed property
+     */
+    public DoubleProperty doubleProperty(String key, double defaultValue) {
+        return bind(() -> new DoubleProperty(this, key, doubleSlots++), property -> (properties, snapshot) ->
+                snapshot.doubles()[property.slot] = parse(properties, key, Double::parseDouble, defaultValue));
+    }
+
+    /**
+     * Creates a typed property reading a boolean value, which has to be either {@code true} or {@code false}.
+     *
+     * @param key          the key of the property
+     * @param defaultValue the value used if the property is missing or invalid
+     * @return the typed property
+     */
+    public BooleanProperty booleanProperty(String key, boolean defaultValue) {
+        return bind(() -> new BooleanProperty(this, key, longSlots++), property -> (properties, snapshot) ->
+                snapshot.longs()[property.slot] = parse(properties, key, PropertiesFile::parseBoolean, defaultValue) ? 1 : 0);
+    }
+
+    /**
+     * Creates a typed property reading an enum constant by its name, ignoring case if there is no exact match.
+     *
+     * @param key          the key of the property
+     * @param defaultValue the value used if the property is missing or invalid
+     * @param <E>          the enum type
+     * @return the typed property
+     */
+    public <E extends Enum<E>> Property<E> enumProperty(String key, E defaultValue) {
+        var type = defaultValue.getDeclaringClass();
+        return objectProperty(key, value -> parseEnum(type, value), defaultValue);
+    }
+
+    /**
+     * Creates a typed property reading a duration, either in the ISO-8601 format, such as {@code PT1M30S},
+     * or as an amount followed by one of the units {@code ms}, {@code s}, {@code m}, {@code h}, or {@code d},
+     * such as {@code 90s}. Amounts without a unit are read as milliseconds.
+     *
+     * @param key          the key of the property
+     * @param defaultValue the value used if the property is missing or invalid
+     * @return the typed property
+     */
+    public Property<Duration> durationProperty(String key, Duration defaultValue) {
+        return objectProperty(key, PropertiesFile::parseDuration, defaultValue);
+    }
+
+    /**
+     * Creates a typed property reading a comma-separated list of values, omitting blank entries.
+     *
+     * @param key          the key of the property
+     * @param defaultValue the value used if the property is missing
+     * @return the typed property
+     */
+    public Property<List<String>> listProperty(String key, List<String> defaultValue) {
+        return objectProperty(key, value -> Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .toList(), List.copyOf(defaultValue));
+    }
+
+    private <T> Property<T> objectProperty(String key, Function<String, T> parser, T defaultValue) {
+        return bind(() -> new Property<T>(this, key, objectSlots++), property -> (properties, snapshot) ->
+                snapshot.objects()[property.slot] = parse(properties, key, parser, defaultValue));
+    }
+
+    private <P extends TypedProperty> P bind(Supplier<P> factory, Function<P, Binding> binding) {
+        getRoot();
+        synchronized (snapshotLock) {
+            var property = factory.get();
+            bindings.add(binding.apply(property));
+            snapshot = parse(source);
+            return property;
+        }
+    }
+
+    private Snapshot parse(Properties properties) {
+        var snapshot = new Snapshot(new long[longSlots], new double[doubleSlots], new Object[objectSlots]);
+        bindings.forEach(binding -> binding.store(properties, snapshot));
+        return snapshot;
+    }
+
+    private <T> T parse(Properties properties, String key, Function<String, T> parser, T defaultValue) {
+        var value = properties.getProperty(key);
+        if (value == null) return defaultValue;
+        try {
+            return parser.apply(value.trim());
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Invalid value for " + key + " in " + getFile() + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true")) return true;
+        if (value.equalsIgnoreCase("false")) return false;
+        throw new IllegalArgumentException("Not a boolean: " + value);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        for (var constant : type.getEnumConstants()) if (constant.name().equals(value)) return constant;
+        for (var constant : type.getEnumConstants()) if (constant.name().equalsIgnoreCase(value)) return constant;
+        throw new IllegalArgumentException("No constant " + value + " in " + type.getName());
+    }
+
+    private static Duration parseDuration(String value) {
+        if (value.toUpperCase(Locale.ROOT).matches("-?P.*")) return Duration.parse(value);
+        var matcher = DURATION.matcher(value);
+        if (!matcher.matches()) throw new IllegalArgumentException("Not a duration: " + value);
+        var amount = Long.parseLong(matcher.group(1));
+        var unit = matcher.group(2);
+        return switch (unit != null ? unit.toLowerCase(Locale.ROOT) : "ms") {
+            case "s" -> Duration.ofSeconds(amount);
+            case "m" -> Duration.ofMinutes(amount);
+            case "h" -> Duration.ofHours(amount);
+            case "d" -> Duration.ofDays(amount);
+            default -> Duration.ofMillis(amount);
+        };
+    }
+
+    private record Snapshot(long[] longs, double[] doubles, Object[] objects) {
+    }
+
+    @FunctionalInterface
+    private interface Binding {
+        void store(Properties properties, Snapshot snapshot);
+    }
+
+    /**
+     * A property whose value is parsed once and read from a snapshot of the properties.
+     */
+    public abstract static sealed class TypedProperty permits IntProperty, LongProperty, DoubleProperty, BooleanProperty, Property {
+        final PropertiesFile file;
+        final String key;
+        final int slot;
+
+        private TypedProperty(PropertiesFile file, String key, int slot) {
+            this.file = file;
+            this.key = key;
+            this.slot = slot;
+        }
+
+        /**
+         * Retrieves the key of this property.
+         *
+         * @return the key
+         */
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * A property holding an int value.
+     */
+    public static final class IntProperty extends TypedProperty {
+        private IntProperty(PropertiesFile file, String key, int slot) {
+            super(file, key, slot);
+        }
+
+        /**
+         * Retrieves the current value of this property.
+         *
+         * @return the value
+         */
+        public int get() {
+            return (int) file.snapshot.longs()[slot];
+        }
+    }
+
+    /**
+     * A property holding a long value.
+     */
+    public static final class LongProperty extends TypedProperty {
+        private LongProperty(PropertiesFile file, String key, int slot) {
+            super(file, key, slot);
+        }
+
+        /**
+         * Retrieves the current value of this property.
+         *
+         * @return the value
+         */
+        public long get() {
+            return file.snapshot.longs()[slot];
+        }
+    }
+
+    /**
+     * A property holding a double value.
+     */
+    public static final class DoubleProperty extends TypedProperty {
+        private DoubleProperty(PropertiesFile file, String key, int slot) {
+            super(file, key, slot);
+        }
+
+        /**
+         * Retrieves the current value of this property.
+         *
+         * @return the value
+         */
+        public double get() {
+            return file.snapshot.doubles()[slot];
+        }
+    }
+
+    /**
+     * A property holding a boolean value.
+     */
+    public static final class BooleanProperty extends TypedProperty {
+        private BooleanProperty(PropertiesFile file, String key, int slot) {
+            super(file, key, slot);
+        }
+
+        /**
+         * Retrieves the current value of this property.
+         *
+         * @return the value
+         */
+        public boolean get() {
+            return file.snapshot.longs()[slot] != 0;
+        }
+    }
+
+    /**
+     * Drops the timestamp comment {@link Properties#store(Writer, String)} writes as its first line,
+     * so storing the same properties always produces the same content.
+     */
+    private static final class TimestampFilter extends FilterWriter {
+        private boolean skipping = true;
+
+        private TimestampFilter(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            if (!skipping) out.write(c);
+            else if (c == '\n') skipping = false;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            var start = skip(CharBuffer.wrap(buffer, offset, length));
+            if (start < length) out.write(buffer, offset + start, length - start);
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            var start = skip(CharBuffer.wrap(text, offset, offset + length));
+            if (start < length) out.write(text, offset + start, length - start);
+        }
+
+        private int skip(CharSequence text) {
+            if (!skipping) return 0;
+            for (var i = 0; i < text.length(); i++) {
+                if (text.charAt(i) != '\n') continue;
+                skipping = false;
+                return i + 1;
+            }
+            return text.length();
+        }
+    }
+
+    /**
+     * Properties that can't be modified after they were created, throwing {@link UnsupportedOperationException} instead.
+     * <p>
+     * They are serialized as regular, modifiable properties.
+     */
+    private static final class FrozenProperties extends Properties {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient Map<Object, Object> view;
+        private final boolean frozen;
+
+        private FrozenProperties(Properties properties) {
+            super(properties.size());
+            properties.forEach(super::put);
+            this.view = Collections.unmodifiableMap(new HashMap<>(properties));
+            this.frozen = true;
+        }
+
+        private UnsupportedOperationException frozen() {
+            return new UnsupportedOperationException("Snapshots can't be modified");
+        }
+
+        @Serial
+        private Object writeReplace() {
+            var properties = new Properties(view.size());
+            properties.putAll(view);
+            return properties;
+        }
+
+        @Override
+        public synchronized @Nullable Object put(Object key, Object value) {
+            if (frozen) throw frozen();
+            return super.put(key, value);
+        }
+
+        @Override
+        public synchronized @Nullable Object remove(Object key) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized boolean remove(Object key, Object value) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized void putAll(Map<?, ?> map) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized void clear() {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized @Nullable Object putIfAbsent(Object key, Object value) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized @Nullable Object replace(Object key, Object value) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized @Nullable Object compute(Object key, BiFunction<? super Object, ? super @Nullable Object, ?> function) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized @Nullable Object computeIfAbsent(Object key, Function<? super Object, ?> function) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized @Nullable Object computeIfPresent(Object key, BiFunction<? super Object, ? super Object, ?> function) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized @Nullable Object merge(Object key, Object value, BiFunction<? super Object, ? super Object, ?> function) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized void load(Reader reader) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized void load(InputStream stream) {
+            throw frozen();
+        }
+
+        @Override
+        public synchronized void loadFromXML(InputStream stream) {
+            throw frozen();
+        }
+
+        @Override
+        public Set<Object> keySet() {
+            return view.keySet();
+        }
+
+        @Override
+        public Set<Map.Entry<Object, Object>> entrySet() {
+            return view.entrySet();
+        }
+
+        @Override
+        public Collection<Object> values() {
+            return view.values();
+        }
+    }
+
+    /**
+     * A property holding an object, such as an enum constant, duration, or list.
+     *
+     * @param <T> the type of the value
+     */
+    public static final class Property<T> extends TypedProperty {
+        private Property(PropertiesFile file, String key, int slot) {
+            super(file, key, slot);
+        }
+
+        /**
+         * Retrieves the current value of this property.
+         *
+         * @return the value
+         */
+        @SuppressWarnings("unchecked")
+        public T get() {
+            return (T) file.snapshot.objects()[slot];
+        }
+    }
 }
@@ -0,0 +1,192 @@
+package core.file.formats;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * The lines of a properties file, including comments and blank lines, as they were last read or written.
+ *
+ * @param lines     the logical lines including their line terminators
+ * @param values    the values of all properties as of these lines
+ * @param separator the line separator used for new lines
+ */
+record PropertiesLayout(List<Line> lines, Map<String, String> values, String separator) {
+    /**
+     * Creates a layout without any lines, used for files that don't exist yet.
+     *
+     * @return an empty layout
+     */
+    static PropertiesLayout empty() {
+        return new PropertiesLayout(List.of(), Map.of(), System.lineSeparator());
+    }
+
+    /**
+     * Parses the lines of the given properties file content.
+     *
+     * @param text       the content of the file
+     * @param properties the properties loaded from the content
+     * @return the layout of the content
+     */
+    static PropertiesLayout parse(String text, Properties properties) {
+        var lines = new ArrayList<Line>();
+        @Nullable String separator = null;
+        var logical = new StringBuilder();
+        var raw = new StringBuilder();
+        var continuing = false;
+        var start = 0;
+        while (start < text.length()) {
+            var end = start;
+            while (end < text.length() && text.charAt(end) != '\n' && text.charAt(end) != '\r') end++;
+            var terminator = end == text.length() ? 0 : text.startsWith("\r\n", end) ? 2 : 1;
+            if (terminator != 0 && separator == null) separator = text.substring(end, end + terminator);
+            var content = continuing ? text.substring(start, end).stripLeading() : text.substring(start, end);
+            raw.append(text, start, end + terminator);
+            start = end + terminator;
+            if (!continuing && isBlankOrComment(content)) {
+                lines.add(new Line(raw.toString(), null));
+                raw.setLength(0);
+            } else if (terminator != 0 && endsWithEscape(content)) {
+                logical.append(content, 0, content.length() - 1);
+                continuing = true;
+            } else {
+                logical.append(content);
+                lines.add(new Line(raw.toString(), key(logical)));
+                logical.setLength(0);
+                raw.setLength(0);
+                continuing = false;
+            }
+        }
+        if (!raw.isEmpty()) lines.add(new Line(raw.toString(), key(logical)));
+        if (separator == null) separator = System.lineSeparator();
+        return new PropertiesLayout(List.copyOf(lines), values(properties), separator);
+    }
+
+    /**
+     * Writes the given properties, keeping all lines of properties that didn't change.
+     * <p>
+     * Lines of changed properties are replaced, lines of removed properties are dropped,
+     * and added properties are appended in the order of their keys.
+     * This layout stays unchanged, the layout of the written content is {@link #parse(String, Properties) parsed}
+     * once it was saved.
+     *
+     * @param properties the properties to write
+     * @param writer     the writer to write to
+     * @throws IOException if an I/O error occurs
+     */
+    void write(Properties properties, Writer writer) throws IOException {
+        var values = values(properties);
+        var written = new HashSet<String>();
+        var terminated = true;
+        for (var line : this.lines) {
+            var key = line.key();
+            var value = key != null ? values.get(key) : null;
+            if (key != null && value == null) continue;
+            var text = key == null || value.equals(this.values.get(key)) ? line.text() : format(key, value) + trailing(line.text());
+            if (key != null) written.add(key);
+            writer.write(text);
+            terminated = text.endsWith("\n") || text.endsWith("\r");
+        }
+        for (var entry : values.entrySet()) {
+            if (written.contains(entry.getKey())) continue;
+            if (!terminated) writer.write(separator);
+            writer.write(format(entry.getKey(), entry.getValue()) + separator);
+            terminated = true;
+        }
+    }
+
+    private static String trailing(String text) {
+        if (text.endsWith("\r\n")) return "\r\n";
+        if (text.endsWith("\n")) return "\n";
+        if (text.endsWith("\r")) return "\r";
+        return "";
+    }
+
+    private static Map<String, String> values(Properties properties) {
+        var values = new TreeMap<String, String>();
+        properties.forEach((key, value) -> values.put(String.valueOf(key), String.valueOf(value)));
+        return values;
+    }
+
+    private static boolean isBlankOrComment(String line) {
+        var stripped = line.stripLeading();
+        return stripped.isEmpty() || stripped.charAt(0) == '#' || stripped.charAt(0) == '!';
+    }
+
+    private static boolean endsWithEscape(String line) {
+        var backslashes = 0;
+        for (var i = line.length() - 1; i >= 0 && line.charAt(i) == '\\'; i--) backslashes++;
+        return backslashes % 2 == 1;
+    }
+
+    private static String key(CharSequence line) {
+        var key = new StringBuilder();
+        var i = 0;
+        while (i < line.length() && isWhitespace(line.charAt(i))) i++;
+        while (i < line.length()) {
+            var c = line.charAt(i++);
+            if (c == '=' || c == ':' || isWhitespace(c)) break;
+            if (c != '\\' || i == line.length()) {
+                key.append(c);
+                continue;
+            }
+            c = line.charAt(i++);
+            switch (c) {
+                case 't' -> key.append('\t');
+                case 'n' -> key.append('\n');
+                case 'r' -> key.append('\r');
+                case 'f' -> key.append('\f');
+                case 'u' -> {
+                    if (i + 4 > line.length()) throw new IllegalArgumentException("Malformed \\uxxxx encoding");
+                    key.append((char) Integer.parseInt(line, i, i + 4, 16));
+                    i += 4;
+                }
+                default -> key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    private static String format(String key, String value) {
+        var line = new StringBuilder(key.length() + value.length() + 1);
+        escape(line, key, true);
+        line.append('=');
+        escape(line, value, false);
+        return line.toString();
+    }
+
+    private static void escape(StringBuilder builder, String text, boolean key) {
+        for (var i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+            switch (c) {
+                case ' ' -> builder.append(i == 0 || key ? "\\ " : " ");
+                case '\t' -> builder.append("\\t");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\f' -> builder.append("\\f");
+                case '\\', '=', ':', '#', '!' -> builder.append('\\').append(c);
+                default -> builder.append(c);
+            }
+        }
+    }
+
+    /**
+     * A logical line, which may span multiple lines if continued.
+     *
+     * @param text the raw text of the line including its line terminators
+     * @param key  the key of the property defined by this line, or null for comments and blank lines
+     */
+    record Line(String text, @Nullable String key) {
+    }
+}
@@ -3,6 +3,7 @@ import org.jspecify.annotations.NullMarked;
 @NullMarked
 module core.files {
     requires com.google.gson;
+    requires jdk.jfr;
 
     requires static org.jspecify;
 
@@ -0,0 +1,89 @@
+package core.file.test;
+
+import core.file.FileIO;
+import core.file.FileIOListener.Operation;
+import core.file.FileIOMetrics;
+import core.file.Validatable;
+import core.file.formats.PropertiesFile;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileIOMetricsTest {
+    private static final Path path = Path.of("metrics.properties");
+    private static final Path recordedPath = Path.of("recorded.properties");
+    private static final Path recordingPath = Path.of("metrics.jfr");
+
+    @Test
+    public void countOperations() {
+        var metrics = new FileIOMetrics();
+        FileIO.addListener(metrics);
+        FileIO.setMainThread(thread -> thread == Thread.currentThread());
+        try {
+            var file = new PropertiesFile(path);
+            file.getRoot().setProperty("motd", "hello");
+            file.save();
+            file.reload();
+            file.validate(Validatable.Scope.FILTER_AND_FILL);
+            file.save();
+        } finally {
+            FileIO.setMainThread(thread -> thread.getName().equals("main") || thread.getName().equals("Server thread"));
+            assertTrue(FileIO.removeListener(metrics), "Listener was not registered");
+        }
+
+        assertEquals(1, metrics.getCount(Operation.LOAD));
+        assertEquals(2, metrics.getCount(Operation.SAVE));
+        assertEquals(1, metrics.getCount(Operation.RELOAD));
+        assertEquals(1, metrics.getCount(Operation.VALIDATE));
+        assertEquals(2, metrics.getMainThreadCount(Operation.SAVE));
+        assertEquals(0, metrics.getFailures(Operation.SAVE));
+        assertTrue(metrics.getBytes(Operation.SAVE) > 0, "Written bytes were not counted");
+
+        var latency = metrics.getLatency(Operation.SAVE);
+        assertEquals(2, latency.count());
+        assertTrue(latency.percentile(0.5).compareTo(latency.maximum()) <= 0, "Percentile exceeds the maximum");
+        assertTrue(latency.maximum().compareTo(Duration.ZERO) > 0, "Latency was not recorded");
+
+        metrics.reset();
+        assertEquals(0, metrics.getLatency(Operation.SAVE).count());
+    }
+
+    @Test
+    public void recordEvents() throws IOException {
+        try (var recording = new Recording()) {
+            recording.enable("core.file.Save").withThreshold(Duration.ZERO);
+            recording.start();
+            var file = new PropertiesFile(recordedPath);
+            file.getRoot().setProperty("recorded", "true");
+            file.save();
+            recording.stop();
+            recording.dump(recordingPath);
+        }
+        var events = RecordingFile.readAllEvents(recordingPath).stream()
+                .filter(event -> event.getEventType().getName().equals("core.file.Save"))
+                .toList();
+        assertEquals(1, events.size());
+        assertEquals(recordedPath.toString(), events.getFirst().getString("path"));
+        assertTrue(events.getFirst().getLong("bytes") > 0, "Written bytes were not recorded");
+    }
+
+    @AfterAll
+    public static void cleanup() throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(recordedPath);
+        Files.deleteIfExists(recordingPath);
+        assertFalse(Files.isRegularFile(path), path + " still exists");
+        assertFalse(Files.isRegularFile(recordedPath), recordedPath + " still exists");
+        assertFalse(Files.isRegularFile(recordingPath), recordingPath + " still exists");
+    }
+}
@@ -0,0 +1,312 @@
+package core.file.test;
+
+import com.google.gson.JsonObject;
+import core.file.Durability;
+import core.file.FileIO;
+import core.file.FileLoader;
+import core.file.FileSaver;
+import core.file.SaveScheduler;
+import core.file.formats.JsonFile;
+import core.file.formats.PropertiesFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileIOTest {
+    private static final Path path = Path.of("file-io.json");
+    private static final Path dirtyPath = Path.of("dirty.json");
+    private static final Path asyncPath = Path.of("async.json");
+    private static final Path propertiesPath = Path.of("dirty.properties");
+    private static final Path reloadPath = Path.of("reload.json");
+    private static final Path directory = Path.of("bulk");
+    private static final Path batchDirectory = Path.of("batch");
+
+    @Test
+    public void saveAsync() {
+        var file = new JsonFile<>(path, new JsonObject());
+        file.setSaveDelay(Duration.ofSeconds(10));
+
+        var first = file.saveAsync();
+        file.getRoot().addProperty("value", 1);
+        var second = file.saveAsync();
+
+        assertFalse(Files.isRegularFile(path), "Save was not delayed");
+
+        FileIO.flushPendingSaves();
+
+        assertTrue(first.isDone() && second.isDone(), "Pending saves were not flushed");
+        assertEquals(file.getRoot(), new JsonFile<>(path, new JsonObject()).getRoot(), "Latest root was not saved");
+    }
+
+    @Test
+    public void saveAsyncDuringSave() throws InterruptedException {
+        var writing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var file = new JsonFile<>(asyncPath, new JsonObject()) {
+            @Override
+            protected void write(JsonObject root, Writer writer) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                super.write(root, writer);
+            }
+        };
+        var save = Thread.ofVirtual().start(file::save);
+        writing.await();
+
+        var start = System.nanoTime();
+        var future = file.saveAsync();
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos(), "Asynchronous save waited for a running save");
+        assertFalse(future.isDone(), "Asynchronous save completed during a running save");
+
+        release.countDown();
+        future.join();
+        save.join();
+        assertTrue(Files.isRegularFile(asyncPath), "Asynchronous save was lost");
+    }
+
+    @Test
+    public void skipUnchangedSave() throws IOException {
+        var file = new JsonFile<>(dirtyPath, new JsonObject());
+        file.setAtomic(true).save();
+
+        assertFalse(file.isDirty(), "Saved file is dirty");
+        var fileKey = Files.readAttributes(dirtyPath, BasicFileAttributes.class).fileKey();
+        file.save();
+        assertEquals(fileKey, Files.readAttributes(dirtyPath, BasicFileAttributes.class).fileKey(), "Unchanged file was rewritten");
+
+        var posix = dirtyPath.getFileSystem().supportedFileAttributeViews().contains("posix");
+        var permissions = PosixFilePermissions.fromString("rw-r-----");
+        if (posix) Files.setPosixFilePermissions(dirtyPath, permissions);
+
+        file.getRoot().addProperty("value", 1);
+        assertTrue(file.isDirty(), "Modified file is not dirty");
+        file.save();
+        assertFalse(file.isDirty(), "Saved file is dirty");
+        if (posix) assertEquals(permissions, Files.getPosixFilePermissions(dirtyPath), "Atomic save reset the permissions");
+
+        var reloaded = new JsonFile<>(dirtyPath, new JsonObject());
+        reloaded.getRoot();
+        assertFalse(reloaded.isDirty(), "Loaded file is dirty");
+    }
+
+    @Test
+    public void skipUnchangedPropertiesSave() throws IOException {
+        var properties = new Properties();
+        properties.setProperty("first", "1");
+        properties.setProperty("second", "2");
+        var file = new PropertiesFile(propertiesPath, properties);
+        file.save();
+
+        assertFalse(Files.readString(propertiesPath).startsWith("#"), "Timestamp comment was stored");
+        var fileKey = Files.readAttributes(propertiesPath, BasicFileAttributes.class).fileKey();
+        assertFalse(file.isDirty(), "Saved file is dirty");
+        file.save();
+        assertEquals(fileKey, Files.readAttributes(propertiesPath, BasicFileAttributes.class).fileKey(), "Unchanged file was rewritten");
+
+        var reordered = new Properties();
+        reordered.setProperty("second", "2");
+        reordered.setProperty("first", "1");
+        file.setRoot(reordered);
+        assertFalse(file.isDirty(), "Reordered properties are dirty");
+
+        var reloaded = new PropertiesFile(propertiesPath);
+        reloaded.getRoot();
+        assertFalse(reloaded.isDirty(), "Loaded file is dirty");
+        reloaded.getRoot().setProperty("third", "3");
+        assertTrue(reloaded.isDirty(), "Modified file is not dirty");
+    }
+
+    @Test
+    public void reloadIfChanged() throws IOException {
+        var file = new JsonFile<>(reloadPath, new JsonObject());
+        file.save();
+
+        assertFalse(file.reloadIfChanged(), "Unchanged file was reloaded");
+
+        Files.writeString(reloadPath, "{\"value\": 1}");
+
+        assertTrue(file.reloadIfChanged(), "Changed file was not reloaded");
+        assertEquals(1, file.getRoot().get("value").getAsInt(), "Changed file was not reloaded");
+        assertFalse(file.reloadIfChanged(), "Unchanged file was reloaded");
+    }
+
+    @Test
+    public void concurrentLoad() throws InterruptedException {
+        var loads = new AtomicInteger();
+        var file = new JsonFile<>(path, new JsonObject()) {
+            @Override
+            protected JsonObject load() {
+                loads.incrementAndGet();
+                return super.load();
+            }
+        };
+
+        var start = new CountDownLatch(1);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var i = 0; i < 32; i++) executor.execute(() -> {
+                try {
+                    start.await();
+                    file.getRoot();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            start.countDown();
+        }
+
+        assertEquals(1, loads.get(), "File was loaded more than once");
+    }
+
+    @Test
+    public void loadAll() throws IOException {
+        Files.createDirectories(directory);
+        for (var i = 0; i < 16; i++) Files.writeString(directory.resolve(i + ".json"), "{\"index\": " + i + "}");
+        Files.writeString(directory.resolve("broken.json"), "{");
+
+        var result = FileLoader.loadAll(directory, "*.json", path -> new JsonFile<>(path, new JsonObject())).join();
+
+        assertEquals(16, result.loaded().size(), "Not all files were loaded");
+        assertEquals(Set.of(directory.resolve("broken.json")), result.failures().keySet(), "Failure was not reported");
+        result.loaded().forEach(file -> assertTrue(file.getRoot().has("index"), "File was not loaded"));
+    }
+
+    @Test
+    public void saveAll() throws IOException {
+        var files = new ArrayList<JsonFile<JsonObject>>();
+        for (var i = 0; i < 16; i++) {
+            var file = new JsonFile<>(batchDirectory.resolve("group-" + i % 2).resolve(i + ".json"), new JsonObject());
+            file.setDurability(Durability.SYNC_DIRECTORY).setAtomic(true);
+            file.getRoot().addProperty("index", i);
+            files.add(file);
+        }
+        var untouched = new JsonFile<>(batchDirectory.resolve("untouched.json"), new JsonObject());
+        var all = new ArrayList<>(files);
+        all.add(untouched);
+
+        var result = FileSaver.saveAll(all).join();
+        assertTrue(result.isSuccessful(), "Batch failed: " + result.failures());
+        assertEquals(files.size(), result.saved().size(), "Not all files were saved");
+        assertEquals(List.of(untouched), result.unchanged(), "File that was never loaded was saved");
+        assertFalse(Files.exists(untouched.getFile()), "File that was never loaded was written");
+        files.forEach(file -> assertEquals(file.getRoot(), new JsonFile<>(file.getFile(), new JsonObject()).getRoot()));
+
+        files.getFirst().getRoot().addProperty("changed", true);
+        var second = FileSaver.saveAll(files).join();
+        assertEquals(List.of(files.getFirst()), second.saved(), "Unchanged files were written again");
+        assertEquals(files.size() - 1, second.unchanged().size());
+    }
+
+    @Test
+    public void saveScheduler() throws IOException, InterruptedException {
+        var files = new ArrayList<JsonFile<JsonObject>>();
+        for (var i = 0; i < 4; i++) files.add(new JsonFile<>(batchDirectory.resolve("scheduled-" + i + ".json"), new JsonObject()));
+        try (var scheduler = new SaveScheduler(SaveScheduler.Budget.OPERATIONS_PER_SECOND, 1)) {
+            files.forEach(file -> {
+                file.getRoot().addProperty("scheduled", true);
+                scheduler.markDirty(file);
+            });
+            assertTrue(scheduler.getPendingCount() >= 2, "Budget was exceeded");
+        }
+        files.forEach(file -> assertTrue(Files.isRegularFile(file.getFile()), "Pending file was not saved on close"));
+
+        var saveOrder = Collections.synchronizedList(new ArrayList<Path>());
+        var ordered = new ArrayList<JsonFile<JsonObject>>();
+        for (var i = 0; i < 4; i++) ordered.add(new JsonFile<>(batchDirectory.resolve("ordered-" + i + ".json"), new JsonObject()) {
+            @Override
+            protected void onSaved(ByteBuffer content) throws IOException {
+                super.onSaved(content);
+                saveOrder.add(getFile());
+            }
+        });
+        var start = System.nanoTime();
+        try (var scheduler = new SaveScheduler(SaveScheduler.Budget.OPERATIONS_PER_SECOND, 10, 1)) {
+            for (var file : ordered.reversed()) {
+                file.getRoot().addProperty("ordered", true);
+                scheduler.markDirty(file);
+                Thread.sleep(10);
+            }
+            awaitSaved(ordered, file -> saveOrder.contains(file.getFile()));
+        }
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(250).toNanos(), "Operation budget was exceeded");
+        assertEquals(ordered.reversed().stream().map(FileIO::getFile).toList(), saveOrder,
+                "Files were not saved in the order they became dirty");
+
+        var padding = "x".repeat(1000);
+        var sized = new ArrayList<JsonFile<JsonObject>>();
+        for (var i = 0; i < 3; i++) {
+            var file = new JsonFile<>(batchDirectory.resolve("sized-" + i + ".json"), new JsonObject());
+            file.getRoot().addProperty("padding", padding);
+            file.save();
+            sized.add(file);
+        }
+        start = System.nanoTime();
+        try (var scheduler = new SaveScheduler(SaveScheduler.Budget.BYTES_PER_SECOND, 5000, 1000)) {
+            for (var file : sized) {
+                file.getRoot().addProperty("padding", padding.toUpperCase());
+                scheduler.markDirty(file);
+            }
+            awaitSaved(sized, file -> Files.readString(file.getFile()).contains("XXX"));
+        }
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(300).toNanos(), "Byte budget was exceeded");
+    }
+
+    private static <T> void awaitSaved(List<T> files, SavedCheck<T> check) throws IOException, InterruptedException {
+        var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        for (var file : files) while (!check.isSaved(file)) {
+            assertTrue(System.nanoTime() < deadline, "Scheduled file was not saved");
+            Thread.sleep(5);
+        }
+    }
+
+    private interface SavedCheck<T> {
+        boolean isSaved(T file) throws IOException;
+    }
+
+    @AfterAll
+    public static void cleanup() throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(dirtyPath);
+        Files.deleteIfExists(asyncPath);
+        Files.deleteIfExists(propertiesPath);
+        Files.deleteIfExists(reloadPath);
+        if (Files.isDirectory(directory)) try (var files = Files.list(directory)) {
+            for (var file : files.toList()) Files.delete(file);
+        }
+        Files.deleteIfExists(directory);
+        if (Files.isDirectory(batchDirectory)) try (var files = Files.walk(batchDirectory)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+        assertFalse(Files.isRegularFile(path), path + " still exists");
+        assertFalse(Files.isRegularFile(dirtyPath), dirtyPath + " still exists");
+        assertFalse(Files.isRegularFile(asyncPath), asyncPath + " still exists");
+        assertFalse(Files.isRegularFile(propertiesPath), propertiesPath + " still exists");
+        assertFalse(Files.isRegularFile(reloadPath), reloadPath + " still exists");
+        assertFalse(Files.isDirectory(directory), directory + " still exists");
+        assertFalse(Files.isDirectory(batchDirectory), batchDirectory + " still exists");
+    }
+}
@@ -0,0 +1,87 @@
+package core.file.test;
+
+import core.file.FileStore;
+import core.file.formats.GsonFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileStoreTest {
+    private static final Path directory = Path.of("store");
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        var first = UUID.randomUUID();
+        var second = UUID.randomUUID();
+        var third = UUID.randomUUID();
+
+        try (var store = new FileStore<UUID, Profile>(directory, ".json",
+                path -> new GsonFile<>(path, new Profile("unknown", 0)), 2)) {
+            store.put(first, new Profile("first", 1));
+            store.put(second, new Profile("second", 2));
+            store.get(first);
+            store.put(third, new Profile("third", 3));
+
+            assertEquals(2, store.size(), "Store exceeded its maximum size");
+            assertFalse(store.isLoaded(second), "Least recently used entry was not evicted");
+            assertTrue(Files.isRegularFile(store.resolve(second)), "Evicted entry was not saved");
+            assertEquals(new Profile("second", 2), store.get(second), "Evicted entry was not loaded again");
+
+            var handle = store.getFile(second);
+            store.get(first);
+            store.get(third);
+            assertFalse(store.isLoaded(second), "Least recently used entry was not evicted");
+            handle.setRoot(new Profile("second", 20));
+            assertSame(handle, store.getFile(second), "Referenced instance was not reused");
+            assertEquals(new Profile("second", 20), store.get(second), "Change to evicted instance was lost");
+            assertThrows(IllegalArgumentException.class, () -> new FileStore<String, Profile>(directory, ".json",
+                    path -> new GsonFile<>(path, new Profile("unknown", 0)), 1).resolve("../escape"));
+        }
+
+        assertTrue(Files.isRegularFile(directory.resolve(first + ".json")), "Entry was not saved on close");
+    }
+
+    @Test
+    public void keepEntriesFailingToSave() throws IOException {
+        try (var store = new FileStore<String, Profile>(directory, ".json",
+                path -> new GsonFile<>(path, new Profile("unknown", 0)), 2)) {
+            var blocked = store.resolve("blocked");
+            Files.createDirectories(blocked);
+
+            store.put("blocked", new Profile("blocked", 1));
+            store.put("first", new Profile("first", 2));
+            store.put("second", new Profile("second", 3));
+
+            assertTrue(store.isLoaded("blocked"), "Entry failing to save was evicted");
+            assertEquals(new Profile("blocked", 1), store.get("blocked"), "Changes of entry failing to save were lost");
+
+            Files.delete(blocked);
+            store.put("third", new Profile("third", 4));
+            store.put("fourth", new Profile("fourth", 5));
+            assertFalse(store.isLoaded("blocked"), "Entry was not evicted once it could be saved");
+            assertEquals(new Profile("blocked", 1), store.get("blocked"), "Entry was not saved once it could be");
+        }
+    }
+
+    @AfterAll
+    public static void cleanup() throws IOException {
+        if (Files.isDirectory(directory)) try (var files = Files.list(directory)) {
+            for (var file : files.toList()) Files.delete(file);
+        }
+        Files.deleteIfExists(directory);
+        assertFalse(Files.isDirectory(directory), directory + " still exists");
+    }
+
+    private record Profile(String name, int level) {
+    }
+}
@@ -0,0 +1,55 @@
+package core.file.test;
+
+import com.google.gson.JsonObject;
+import core.file.FileWatcher;
+import core.file.formats.JsonFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class FileWatcherTest {
+    private static final Path path = Path.of("watched.json");
+
+    @Test
+    public void reloadOnChange() throws IOException, ExecutionException, InterruptedException, TimeoutException {
+        var contents = new JsonObject();
+        contents.addProperty("unchanged", true);
+        contents.addProperty("changed", 1);
+
+        var file = new JsonFile<>(path, contents);
+        file.save();
+
+        var changes = new CompletableFuture<Set<String>>();
+        try (var watcher = new FileWatcher(Duration.ofMillis(50))) {
+            watcher.watch(file, (io, previous, current, keys) -> changes.complete(keys));
+
+            Files.writeString(path, """
+                    {
+                      "unchanged": true,
+                      "changed": 2,
+                      "added": "value"
+                    }""");
+
+            assertEquals(Set.of("changed", "added"), changes.get(10, TimeUnit.SECONDS), "Wrong keys changed");
+            assertEquals(2, file.getRoot().get("changed").getAsInt(), "File was not reloaded");
+        }
+    }
+
+    @AfterAll
+    public static void cleanup() throws IOException {
+        Files.deleteIfExists(path);
+        assertFalse(Files.isRegularFile(path), path + " still exists");
+    }
+}
@@ -1,5 +1,18 @@
 package core.file.test;
 
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.GsonBuilder;
+import com.google.gson.LongSerializationPolicy;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import core.file.Durability;
+import core.file.Validatable;
+import core.file.formats.CompressedGsonFile;
+import core.file.formats.GenerateAdapter;
+import core.file.formats.GeneratedAdapterFactory;
 import core.file.formats.GsonFile;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
@@ -7,7 +20,12 @@ import org.junit.jupiter.api.Test;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -15,6 +33,13 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class GsonFileTest {
     private static final Path path = Path.of("test.json");
+    private static final Path atomicPath = Path.of("atomic.json");
+    private static final Path snapshotPath = Path.of("snapshot.json");
+    private static final Path compressedPath = Path.of("compressed.json.gz");
+    private static final Path compressedSnapshotPath = Path.of("snapshot.json.gz");
+    private static final Path streamPath = Path.of("stream.json");
+    private static final Path validatedPath = Path.of("validated.json");
+    private static final Path generatedPath = Path.of("generated.json");
 
     @Test
     public void createFile() {
@@ -34,12 +59,208 @@ public class GsonFileTest {
         assertEquals(modified, new GsonFile<>(path, contents).getRoot(), "File was not overridden");
     }
 
+    @Test
+    public void atomicSave() throws IOException {
+        var contents = new Identifier("atomic", UUID.randomUUID());
+        var file = new GsonFile<>(atomicPath, contents)
+                .setDurability(Durability.SYNC_DIRECTORY)
+                .setAtomic(true)
+                .save();
+
+        assertEquals(contents, new GsonFile<>(atomicPath, contents).getRoot(), "File was not saved to disk");
+
+        var modified = new Identifier("replaced", UUID.randomUUID());
+        file.setRoot(modified).save();
+
+        assertEquals(modified, new GsonFile<>(atomicPath, contents).getRoot(), "File was not replaced");
+        try (var files = Files.list(atomicPath.toAbsolutePath().getParent())) {
+            assertTrue(files.noneMatch(path -> path.getFileName().toString().endsWith(".tmp")), "Temporary file was left behind");
+        }
+    }
+
+    @Test
+    public void snapshot() throws IOException {
+        var contents = new Snapshot("snapshot", 42, Long.MAX_VALUE, 0.1, List.of("a", "b"), null);
+        var file = new GsonFile<>(snapshotPath, contents).setSnapshotEnabled(true);
+        file.save();
+
+        assertTrue(Files.isRegularFile(file.getSnapshotFile()), "Snapshot was not saved to disk");
+        assertEquals(contents, new GsonFile<>(snapshotPath, contents).setSnapshotEnabled(true).getRoot(), "Snapshot was not loaded");
+
+        Files.writeString(snapshotPath, "{\"name\": \"edited\"}");
+
+        var edited = new GsonFile<>(snapshotPath, contents).setSnapshotEnabled(true);
+        assertEquals("edited", edited.getRoot().name(), "Outdated snapshot was loaded");
+        assertTrue(edited.delete(), "File was not deleted");
+        assertFalse(Files.isRegularFile(edited.getSnapshotFile()), "Snapshot was not deleted");
+
+        var compressed = new CompressedGsonFile<>(compressedSnapshotPath, contents).setSnapshotEnabled(true);
+        compressed.save();
+        var loaded = new CompressedGsonFile<>(compressedSnapshotPath, contents).setSnapshotEnabled(true);
+        assertEquals(contents, loaded.getRoot(), "Snapshot of compressed file was not loaded");
+        assertFalse(loaded.isDirty(), "Snapshot of compressed file does not match its content");
+        assertTrue(loaded.delete(), "Compressed file was not deleted");
+    }
+
+    @Test
+    public void compressed() throws IOException {
+        var contents = new Identifier("compressed", UUID.randomUUID());
+        new CompressedGsonFile<>(compressedPath, contents).setCompressionLevel(Deflater.BEST_COMPRESSION).save();
+
+        var bytes = Files.readAllBytes(compressedPath);
+        assertEquals(GZIPInputStream.GZIP_MAGIC, (bytes[0] & 0xff) | ((bytes[1] & 0xff) << 8), "File was not compressed");
+
+        var file = new CompressedGsonFile<>(compressedPath, new Identifier("default", UUID.randomUUID()));
+        assertEquals(contents, file.getRoot(), "Compressed file was not loaded");
+        assertFalse(file.isDirty(), "Loaded file is dirty");
+    }
+
+    @Test
+    public void streamElements() {
+        var file = new GsonFile<>(streamPath, List.of(), new TypeToken<List<Identifier>>() {
+        });
+        var elements = IntStream.range(0, 1000).mapToObj(i -> new Identifier("element-" + i, UUID.randomUUID())).toList();
+        file.saveElements(elements.iterator(), Identifier.class);
+
+        assertEquals(elements, file.getRoot(), "Streamed elements were not saved as an array");
+        try (var stream = file.<Identifier>streamElements(Identifier.class)) {
+            assertEquals(elements.get(42), stream.skip(42).findFirst().orElseThrow(), "Elements were not streamed in order");
+        }
+        try (var stream = file.<Identifier>streamElements(Identifier.class)) {
+            assertEquals(elements.size(), stream.count(), "Not all elements were streamed");
+        }
+    }
+
+    @Test
+    public void deepValidation() throws IOException {
+        Files.writeString(validatedPath, """
+                {
+                  "name": "server",
+                  "limits": {"maxPlayers": 50, "legacy": true},
+                  "worlds": [{"name": "world", "unused": 1}],
+                  "groups": {"admin": 3},
+                  "obsolete": "value"
+                }""");
+        var defaults = new Config("default", new Limits(20, 5), List.of(new World("world", 0)), Map.of("default", 0));
+
+        var shallow = new GsonFile<>(validatedPath, defaults).setLoadValidation(Validatable.Scope.FILTER_AND_FILL);
+        shallow.getRoot();
+        assertEquals(List.of("obsolete"), shallow.getValidationReport().filtered(), "Nested values were validated by default");
+        assertEquals(List.of(), shallow.getValidationReport().filled(), "Nested values were validated by default");
+
+        var file = new GsonFile<>(validatedPath, defaults).setDeepValidation(true).setLoadValidation(Validatable.Scope.FILTER_AND_FILL);
+        assertEquals(new Config("server", new Limits(50, 5), List.of(new World("world", 0)), Map.of("admin", 3)), file.getRoot());
+        assertEquals(List.of("limits.legacy", "worlds[0].unused", "obsolete"), file.getValidationReport().filtered());
+        assertEquals(List.of("limits.minPlayers", "worlds[0].border"), file.getValidationReport().filled());
+
+        var unchanged = new GsonFile<>(validatedPath, defaults).setDeepValidation(true);
+        unchanged.getRoot();
+        assertFalse(unchanged.validateWithReport(Validatable.Scope.FILTER_AND_FILL).hasChanges(), "Valid root was changed");
+    }
+
+    @Test
+    public void generatedAdapter() throws IOException {
+        assertTrue(GeneratedAdapterFactory.hasAdapter(Server.class), "Adapter was not generated");
+        var contents = new Server("lobby", 25565, true, List.of(new Player("steve", 12.5f)), null);
+
+        var file = new GsonFile<>(generatedPath, contents);
+        assertTrue(file.getGson().getAdapter(Server.class).getClass().getSimpleName().endsWith("_GsonAdapter"),
+                "Generated adapter was not registered");
+        file.save();
+        assertTrue(Files.readString(generatedPath).contains("\"server-name\": \"lobby\""), "Serialized name was ignored");
+        assertEquals(contents, new GsonFile<>(generatedPath, new Server("", 0, false, List.of(), null)).getRoot());
+
+        Files.writeString(generatedPath, "{\"port\": null, \"players\": [{\"name\": \"alex\"}], \"unknown\": [1]}");
+        var root = new GsonFile<>(generatedPath, contents).getRoot();
+        assertEquals(new Server(null, 0, false, List.of(new Player("alex", 0)), null), root);
+
+        Files.writeString(generatedPath, "{\"name\": \"nether\"}");
+        var settings = new GsonFile<>(generatedPath, new Settings()).getRoot();
+        assertEquals("nether", settings.name);
+        assertEquals(16, settings.viewDistance, "Constructor default was not kept");
+
+        var gson = new GsonBuilder().setFieldNamingPolicy(FieldNamingPolicy.UPPER_CAMEL_CASE).setPrettyPrinting().create();
+        var renamed = new GsonFile<>(generatedPath, new Settings(), gson);
+        assertFalse(GeneratedAdapterFactory.isCompatible(gson), "Field naming strategy was not detected");
+        Files.delete(generatedPath);
+        renamed.save();
+        assertTrue(Files.readString(generatedPath).contains("\"ViewDistance\": 16"), "Field naming strategy was ignored");
+
+        var customized = new GsonBuilder()
+                .setLongSerializationPolicy(LongSerializationPolicy.STRING)
+                .registerTypeAdapter(String.class, new TypeAdapter<String>() {
+                    @Override
+                    public void write(JsonWriter out, String value) throws IOException {
+                        out.value(value.toUpperCase());
+                    }
+
+                    @Override
+                    public String read(JsonReader in) throws IOException {
+                        return in.nextString().toLowerCase();
+                    }
+                }).create();
+        var record = new Record("lobby", 5);
+        var customizedFile = new GsonFile<>(generatedPath, record, customized);
+        assertTrue(customizedFile.getGson().getAdapter(Record.class).getClass().getSimpleName().endsWith("_GsonAdapter"),
+                "Generated adapter was not registered");
+        Files.delete(generatedPath);
+        customizedFile.save();
+        assertEquals(customized.newBuilder().create().toJson(record), Files.readString(generatedPath).replaceAll("\\s", ""),
+                "Generated adapter ignored the adapters of the gson instance");
+        Files.writeString(generatedPath, "{\"name\": \"LOBBY\", \"big\": \"7\"}");
+        assertEquals(new Record("lobby", 7), new GsonFile<>(generatedPath, record, customized).getRoot());
+
+        Files.writeString(generatedPath, "{\"name\": true}");
+        assertEquals(new Player("true", 0), new GsonFile<>(generatedPath, new Player("", 0)).getRoot(),
+                "Generated adapter is stricter than the reflective one");
+    }
+
     @AfterAll
     public static void cleanup() throws IOException {
         Files.deleteIfExists(path);
+        Files.deleteIfExists(atomicPath);
+        Files.deleteIfExists(compressedPath);
+        Files.deleteIfExists(streamPath);
+        Files.deleteIfExists(validatedPath);
+        Files.deleteIfExists(generatedPath);
         assertFalse(Files.isRegularFile(path), path + " still exists");
+        assertFalse(Files.isRegularFile(atomicPath), atomicPath + " still exists");
+        assertFalse(Files.isRegularFile(compressedPath), compressedPath + " still exists");
+        assertFalse(Files.isRegularFile(streamPath), streamPath + " still exists");
+        assertFalse(Files.isRegularFile(validatedPath), validatedPath + " still exists");
+        assertFalse(Files.isRegularFile(generatedPath), generatedPath + " still exists");
     }
 
     private record Identifier(String name, UUID uuid) {
     }
+
+    private record Config(String name, Limits limits, List<World> worlds, Map<String, Integer> groups) {
+    }
+
+    private record Limits(int maxPlayers, int minPlayers) {
+    }
+
+    private record World(String name, int border) {
+    }
+
+    private record Snapshot(String name, int count, long total, double ratio, List<String> tags, String note) {
+    }
+
+    @GenerateAdapter
+    record Server(@SerializedName("server-name") String name, int port, boolean online, List<Player> players, Settings settings) {
+    }
+
+    @GenerateAdapter
+    record Player(String name, float balance) {
+    }
+
+    @GenerateAdapter
+    record Record(String name, long big) {
+    }
+
+    @GenerateAdapter
+    static class Settings {
+        String name = "world";
+        int viewDistance = 16;
+    }
 }
@@ -2,20 +2,31 @@ package core.file.test;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import core.file.Validatable;
 import core.file.formats.JsonFile;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JsonFileTest {
     private static final Path path = Path.of("test.json");
+    private static final Path mappedPath = Path.of("mapped.json");
+    private static final Path queryPath = Path.of("query.json");
+    private static final Path encodedPath = Path.of("encoded.json");
+    private static final Path validatedPath = Path.of("validated-tree.json");
 
     @Test
     public void createFile() {
@@ -36,9 +47,105 @@ public class JsonFileTest {
         assertEquals(modified, new JsonFile<>(path, contents).getRoot(), "File was not overridden");
     }
 
+    @Test
+    public void mappedLoad() {
+        var contents = new JsonObject();
+        contents.addProperty("text", "ünïcödé \uD83D\uDE00 text");
+        var array = new JsonArray();
+        for (var i = 0; i < 10_000; i++) array.add("element " + i);
+        contents.add("array", array);
+
+        new JsonFile<>(mappedPath, contents).save();
+
+        var file = new JsonFile<>(mappedPath, new JsonObject());
+        file.setMappingThreshold(0);
+        assertEquals(contents, file.getRoot(), "Mapped file was not read correctly");
+    }
+
+    @Test
+    public void query() throws IOException {
+        var limits = new JsonObject();
+        limits.addProperty("maxPlayers", 20);
+        var settings = new JsonObject();
+        settings.add("limits", limits);
+        var worlds = new JsonArray();
+        worlds.add("overworld");
+        worlds.add("nether");
+        var contents = new JsonObject();
+        contents.add("worlds", worlds);
+        contents.add("settings", settings);
+        new JsonFile<>(queryPath, contents).save();
+
+        var file = new JsonFile<>(queryPath, new JsonObject());
+        assertEquals(Integer.valueOf(20), file.<Integer>query("settings.limits.maxPlayers", Integer.class));
+        assertEquals(new JsonPrimitive("nether"), file.query("worlds[1]"));
+        assertNull(file.query("settings.limits.minPlayers"), "Missing member was found");
+        assertNull(file.query("worlds[2]"), "Missing element was found");
+        assertThrows(IllegalArgumentException.class, () -> file.query("settings..limits"));
+
+        limits.addProperty("maxPlayers", 50);
+        Files.writeString(queryPath, contents.toString() + "\n");
+        assertEquals(new JsonPrimitive(50), file.query("settings.limits.maxPlayers"), "Cached result was not invalidated");
+
+        file.getRoot().getAsJsonObject("settings").getAsJsonObject("limits").addProperty("maxPlayers", 100);
+        assertEquals(new JsonPrimitive(100), file.query("settings.limits.maxPlayers"), "Loaded root was not queried");
+    }
+
+    @Test
+    public void encoding() throws IOException {
+        var text = "ascii ünïcödé € \uD83D\uDE00 unpaired \uD800 end ".repeat(1_000);
+        var file = new JsonFile<>(encodedPath, new JsonPrimitive(text));
+        file.save();
+        var expected = ("\"" + text + "\"").getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, Files.readAllBytes(encodedPath), "Content was not encoded as UTF-8");
+
+        file.setRoot(new JsonPrimitive(text.repeat(2)));
+        file.save();
+        assertEquals(new JsonPrimitive(text.repeat(2).replace('\uD800', '?')), new JsonFile<>(encodedPath, new JsonPrimitive("")).getRoot());
+    }
+
+    @Test
+    public void validateFreeFormContent() throws IOException {
+        Files.writeString(validatedPath, """
+                {
+                  "players": {"steve": {"level": 3}},
+                  "worlds": [{"name": "world", "seed": 1}, {"name": "nether"}],
+                  "obsolete": true
+                }""");
+        var defaults = new JsonObject();
+        var players = new JsonObject();
+        var player = new JsonObject();
+        player.addProperty("level", 0);
+        player.addProperty("rank", "member");
+        players.add("notch", player);
+        defaults.add("players", players);
+        var world = new JsonObject();
+        world.addProperty("name", "world");
+        world.addProperty("border", 0);
+        var worlds = new JsonArray();
+        worlds.add(world);
+        defaults.add("worlds", worlds);
+
+        for (var deep : new boolean[]{false, true}) {
+            var file = new JsonFile<>(validatedPath, defaults).setDeepValidation(deep);
+            var report = file.validateWithReport(Validatable.Scope.FILTER_AND_FILL);
+            assertEquals(List.of("obsolete"), report.filtered(), "Only unknown root members may be filtered");
+            assertEquals(List.of(), report.filled(), "Free-form content was filled");
+            assertTrue(file.getRoot().getAsJsonObject("players").has("steve"), "Free-form map entry was filtered");
+        }
+    }
+
     @AfterAll
     public static void cleanup() throws IOException {
         Files.deleteIfExists(path);
+        Files.deleteIfExists(mappedPath);
+        Files.deleteIfExists(queryPath);
+        Files.deleteIfExists(encodedPath);
+        Files.deleteIfExists(validatedPath);
         assertFalse(Files.isRegularFile(path), path + " still exists");
+        assertFalse(Files.isRegularFile(mappedPath), mappedPath + " still exists");
+        assertFalse(Files.isRegularFile(queryPath), queryPath + " still exists");
+        assertFalse(Files.isRegularFile(encodedPath), encodedPath + " still exists");
+        assertFalse(Files.isRegularFile(validatedPath), validatedPath + " still exists");
     }
 }
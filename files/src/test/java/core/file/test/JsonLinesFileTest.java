@@ -0,0 +1,108 @@
+package core.file.test;
+
+import com.google.gson.reflect.TypeToken;
+import core.file.formats.JsonLinesFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonLinesFileTest {
+    private static final Path file = Path.of("ledger.jsonl");
+    private static final Path compactedFile = Path.of("compacted.jsonl");
+
+    @Test
+    public void appendAndCompact() throws IOException {
+        try (var ledger = ledger()) {
+            ledger.append(new Transaction("alice", 10));
+            ledger.append(new Transaction("bob", 5));
+            ledger.append(new Transaction("alice", -3));
+        }
+        assertEquals(4, Files.readAllLines(file).size(), "Entries were not appended as lines");
+
+        var ledger = ledger();
+        assertEquals(Map.of("alice", 7, "bob", 5), ledger.getRoot(), "Entries were not replayed");
+
+        ledger.save();
+        assertEquals(1, Files.readAllLines(file).size(), "File was not compacted into a snapshot");
+        assertEquals(Map.of("alice", 7, "bob", 5), ledger().getRoot(), "Snapshot does not match the root");
+
+        Files.writeString(file, "{\"bob\":", StandardOpenOption.APPEND);
+        try (var torn = ledger()) {
+            torn.append(new Transaction("bob", 1));
+        }
+        assertEquals(Map.of("alice", 7, "bob", 6), ledger().getRoot(), "Torn line was not skipped");
+    }
+
+    @Test
+    public void appendDuringCompaction() throws IOException, InterruptedException {
+        var compacting = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var blocking = new AtomicBoolean();
+        var ledger = new JsonLinesFile<Map<String, Integer>, Transaction>(compactedFile, new TreeMap<>(),
+                new TypeToken<TreeMap<String, Integer>>() {
+                }.getType(), Transaction.class, JsonLinesFileTest::apply) {
+            @Override
+            protected void write(Map<String, Integer> root, Writer writer) throws IOException {
+                super.write(root, writer);
+                if (!blocking.get()) return;
+                compacting.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        ledger.append(new Transaction("alice", 10));
+        blocking.set(true);
+        var compaction = Thread.ofVirtual().start(ledger::save);
+        compacting.await();
+
+        var start = System.nanoTime();
+        ledger.append(new Transaction("bob", 5));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos(), "Append waited for the compaction");
+
+        release.countDown();
+        compaction.join();
+        ledger.close();
+        assertEquals(2, Files.readAllLines(compactedFile).size(), "Entry appended during compaction was not kept");
+        assertEquals(Map.of("alice", 10, "bob", 5), new JsonLinesFile<>(compactedFile, new TreeMap<String, Integer>(),
+                new TypeToken<TreeMap<String, Integer>>() {
+                }.getType(), Transaction.class, JsonLinesFileTest::apply).getRoot());
+    }
+
+    private static Map<String, Integer> apply(Map<String, Integer> balances, Transaction transaction) {
+        balances.merge(transaction.account(), transaction.amount(), Integer::sum);
+        return balances;
+    }
+
+    private static JsonLinesFile<Map<String, Integer>, Transaction> ledger() {
+        return new JsonLinesFile<>(file, new TreeMap<>(), new TypeToken<TreeMap<String, Integer>>() {
+        }.getType(), Transaction.class, JsonLinesFileTest::apply);
+    }
+
+    @AfterAll
+    public static void cleanup() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(compactedFile);
+        assertFalse(Files.isRegularFile(file), file + " still exists");
+        assertFalse(Files.isRegularFile(compactedFile), compactedFile + " still exists");
+    }
+
+    private record Transaction(String account, int amount) {
+    }
+}
@@ -0,0 +1,88 @@
+package core.file.test;
+
+import core.file.formats.PackedStore;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PackedStoreTest {
+    private static final Path file = Path.of("packed.store");
+    private static final Path concurrentFile = Path.of("concurrent.store");
+
+    @Test
+    public void putAndReopen() {
+        try (var store = new PackedStore<Profile>(file, Profile.class)) {
+            store.put("first", new Profile("first", 1));
+            store.put("second", new Profile("second", 2));
+            var size = file.toFile().length();
+
+            store.put("first", new Profile("first", 10));
+            assertTrue(file.toFile().length() > size, "Updated record was not appended");
+            assertEquals(new Profile("first", 10), store.get("first"), "Record was not updated");
+
+            store.put("second", new Profile("second but with a much longer name", 2));
+
+            assertTrue(store.remove("first"), "Record was not removed");
+            store.put("third", new Profile("third", 3));
+        }
+
+        try (var store = new PackedStore<Profile>(file, Profile.class)) {
+            assertEquals(Set.of("second", "third"), store.keys(), "Index was not rebuilt");
+            assertNull(store.get("first"), "Removed record was restored");
+            assertEquals(new Profile("second but with a much longer name", 2), store.get("second"));
+
+            var size = file.toFile().length();
+            store.compact();
+            assertTrue(file.toFile().length() < size, "Outdated slots were not reclaimed");
+            assertEquals(new Profile("third", 3), store.get("third"), "Record was lost during compaction");
+
+            store.put("fourth", new Profile("fourth", 4));
+        }
+
+        try (var store = new PackedStore<Profile>(file, Profile.class)) {
+            assertEquals(Set.of("second", "third", "fourth"), store.keys(), "Record written after compaction was lost");
+            assertEquals(new Profile("fourth", 4), store.get("fourth"));
+        }
+    }
+
+    @Test
+    public void writeDuringCompaction() throws InterruptedException {
+        try (var store = new PackedStore<Profile>(concurrentFile, Profile.class)) {
+            for (var i = 0; i < 500; i++) store.put("profile-" + i, new Profile("outdated", i));
+            for (var i = 0; i < 500; i++) store.put("profile-" + i, new Profile("initial", i));
+
+            var compaction = Thread.ofVirtual().start(store::compact);
+            for (var i = 0; i < 500; i += 2) store.put("profile-" + i, new Profile("updated", i));
+            for (var i = 1; i < 500; i += 10) store.remove("profile-" + i);
+            compaction.join();
+        }
+
+        try (var store = new PackedStore<Profile>(concurrentFile, Profile.class)) {
+            assertEquals(450, store.size(), "Records written during compaction were lost");
+            for (var i = 0; i < 500; i++) {
+                var expected = i % 10 == 1 ? null : new Profile(i % 2 == 0 ? "updated" : "initial", i);
+                assertEquals(expected, store.get("profile-" + i), "Record written during compaction was lost");
+            }
+        }
+    }
+
+    @AfterAll
+    public static void cleanup() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(concurrentFile);
+        assertFalse(Files.isRegularFile(file), file + " still exists");
+        assertFalse(Files.isRegularFile(concurrentFile), concurrentFile + " still exists");
+    }
+
+    private record Profile(String name, int level) {
+    }
+}
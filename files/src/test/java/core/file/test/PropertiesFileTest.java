@@ -0,0 +1,148 @@
+package core.file.test;
+
+import core.file.formats.PropertiesFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PropertiesFileTest {
+    private static final Path typedPath = Path.of("typed.properties");
+    private static final Path layoutPath = Path.of("layout.properties");
+    private static final Path snapshotPath = Path.of("snapshot.properties");
+
+    @Test
+    public void typedProperties() throws IOException {
+        Files.writeString(typedPath, """
+                max-players=20
+                spawn-radius=12.5
+                whitelist=TRUE
+                unit=seconds
+                timeout=90s
+                worlds=world, world_nether,,world_the_end
+                seed=not a number
+                """);
+
+        var file = new PropertiesFile(typedPath);
+        var maxPlayers = file.intProperty("max-players", 10);
+        var spawnRadius = file.doubleProperty("spawn-radius", 0);
+        var whitelist = file.booleanProperty("whitelist", false);
+        var unit = file.enumProperty("unit", TimeUnit.MILLISECONDS);
+        var timeout = file.durationProperty("timeout", Duration.ZERO);
+        var worlds = file.listProperty("worlds", List.of());
+        var seed = file.longProperty("seed", 42);
+
+        assertEquals(20, maxPlayers.get());
+        assertEquals(12.5, spawnRadius.get());
+        assertTrue(whitelist.get(), "Boolean was not parsed");
+        assertEquals(TimeUnit.SECONDS, unit.get());
+        assertEquals(Duration.ofSeconds(90), timeout.get());
+        assertEquals(List.of("world", "world_nether", "world_the_end"), worlds.get());
+        assertEquals(42, seed.get(), "Invalid value did not fall back to the default");
+
+        Files.writeString(typedPath, "max-players=50\ntimeout=PT1M\n");
+        file.reload();
+        assertEquals(50, maxPlayers.get(), "Snapshot was not swapped on reload");
+        assertEquals(Duration.ofMinutes(1), timeout.get());
+        assertFalse(whitelist.get(), "Removed property did not fall back to the default");
+    }
+
+    @Test
+    public void preserveLayout() throws IOException {
+        Files.writeString(layoutPath, """
+                # Server settings
+                motd = Welcome \\
+                    to the server
+
+                ! limits
+                max-players: 20
+                removed=true
+                """);
+
+        var file = new PropertiesFile(layoutPath).setPreservingLayout(true);
+        assertEquals("Welcome to the server", file.getRoot().getProperty("motd"));
+        file.getRoot().setProperty("motd", "Changed");
+        assertTrue(file.isDirty(), "Modified file is not dirty");
+        file.getRoot().setProperty("motd", "Welcome to the server");
+        assertFalse(file.isDirty(), "Checking for changes modified the layout");
+        file.getRoot().setProperty("max-players", "50");
+        file.getRoot().setProperty("added key", "a=b");
+        file.getRoot().remove("removed");
+        file.save();
+
+        assertEquals("""
+                # Server settings
+                motd = Welcome \\
+                    to the server
+
+                ! limits
+                max-players=50
+                added\\ key=a\\=b
+                """, Files.readString(layoutPath), "Layout was not preserved");
+        assertEquals(file.getRoot(), new PropertiesFile(layoutPath).getRoot(), "Written properties are not readable");
+
+        assertFalse(file.isDirty(), "Saved file is dirty");
+        var reloaded = new PropertiesFile(layoutPath).setPreservingLayout(true);
+        reloaded.getRoot();
+        assertFalse(reloaded.isDirty(), "Unchanged file would be written");
+    }
+
+    @Test
+    public void snapshots() throws IOException, ClassNotFoundException {
+        var file = new PropertiesFile(snapshotPath);
+        file.getRoot().setProperty("motd", "hello");
+        var snapshot = file.snapshot();
+        assertSame(snapshot, file.snapshot(), "Snapshot was not shared");
+        assertEquals("hello", snapshot.getProperty("motd"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.setProperty("motd", "changed"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.entrySet().clear());
+
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new ObjectOutputStream(bytes)) {
+            output.writeObject(snapshot);
+        }
+        try (var input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(snapshot, input.readObject(), "Snapshot was not serialized");
+        }
+
+        file.getRoot().setProperty("motd", "uncommitted");
+        assertEquals("hello", file.snapshot().getProperty("motd"), "Uncommitted change was published");
+        file.save();
+        assertEquals("uncommitted", file.snapshot().getProperty("motd"), "Saved change was not published");
+
+        var live = file.getRoot();
+        file.update(properties -> {
+            properties.setProperty("motd", "updated");
+            assertEquals("uncommitted", live.getProperty("motd"), "Update modified the live root");
+            return properties;
+        });
+        assertEquals("updated", file.getRoot().getProperty("motd"));
+        assertEquals("updated", file.snapshot().getProperty("motd"));
+        assertEquals("hello", snapshot.getProperty("motd"), "Previous snapshot was modified");
+    }
+
+    @AfterAll
+    public static void cleanup() throws IOException {
+        Files.deleteIfExists(typedPath);
+        Files.deleteIfExists(layoutPath);
+        Files.deleteIfExists(snapshotPath);
+        assertFalse(Files.isRegularFile(typedPath), typedPath + " still exists");
+        assertFalse(Files.isRegularFile(layoutPath), layoutPath + " still exists");
+        assertFalse(Files.isRegularFile(snapshotPath), snapshotPath + " still exists");
+    }
+}
@@ -4,5 +4,6 @@ plugins {
 
 rootProject.name = "core"
 include("files")
+include("files-processor")
 include("paper")
 include("utils")